@@ -59,6 +59,8 @@ public class Config {
         // birthday channels: where to post congratulations and where the list embed lives
         config.addProperty("birthdayCongratsChannelId", "");
         config.addProperty("birthdayListChannelId", "");
+        // default time zone for birthdays (users can set their own)
+        config.addProperty("birthdayTimezone", "Europe/Berlin");
 
         // channel counters defaults
         JsonObject channelCounts = new JsonObject();
@@ -230,6 +232,7 @@ public class Config {
         if (!root.has("birthdayCongratsChannelId")) { root.addProperty("birthdayCongratsChannelId", ""); changed = true; }
         if (!root.has("birthdayListChannelId")) { root.addProperty("birthdayListChannelId", ""); changed = true; }
         if (!root.has("birthdayRoleId")) { root.addProperty("birthdayRoleId", ""); changed = true; }
+        if (!root.has("birthdayTimezone")) { root.addProperty("birthdayTimezone", "Europe/Berlin"); changed = true; }
         if (!root.has("ticketLogChannelId")) { root.addProperty("ticketLogChannelId", ""); changed = true; }
         if (!root.has("suggestionChannelId")) { root.addProperty("suggestionChannelId", ""); changed = true; }
 
@@ -284,6 +287,21 @@ public class Config {
             if (!cc.has("includeBots")) { cc.addProperty("includeBots", false); changed = true; }
         }
 
+        // Counting defaults
+        if (!root.has("counting") || root.get("counting").isJsonNull()) {
+            JsonObject counting = new JsonObject();
+            counting.addProperty("enabled", false);
+            counting.addProperty("channelId", "");
+            counting.add("channels", new JsonArray());
+            root.add("counting", counting);
+            changed = true;
+        } else {
+            JsonObject counting = root.getAsJsonObject("counting");
+            if (!counting.has("enabled")) { counting.addProperty("enabled", false); changed = true; }
+            if (!counting.has("channelId")) { counting.addProperty("channelId", ""); changed = true; }
+            if (!counting.has("channels")) { counting.add("channels", new JsonArray()); changed = true; }
+        }
+
         // FlagQuiz defaults
         if (!root.has("flagQuiz") || root.get("flagQuiz").isJsonNull()) {
             JsonObject fq = new JsonObject();
@@ -381,6 +399,10 @@ public class Config {
         return root.has("birthdayRoleId") ? root.get("birthdayRoleId").getAsString() : "";
     }
 
+    public static String getBirthdayTimezone() {
+        return root.has("birthdayTimezone") ? root.get("birthdayTimezone").getAsString() : "Europe/Berlin";
+    }
+
     public static String getTicketLogChannelId() {
         return root.has("ticketLogChannelId") ? root.get("ticketLogChannelId").getAsString() : "";
     }
@@ -439,6 +461,15 @@ public class Config {
         return counting.has("channelId") ? counting.get("channelId").getAsString() : "";
     }
 
+    // Per-channel counting modes: [{ "channelId", "step", "base", "operators", "failPenalty" }]
+    public static JsonArray getCountingChannels() {
+        if (!root.has("counting")) return new JsonArray();
+        JsonObject counting = root.getAsJsonObject("counting");
+        return counting.has("channels") && counting.get("channels").isJsonArray()
+                ? counting.getAsJsonArray("channels").deepCopy()
+                : new JsonArray();
+    }
+
     // Database getters
     public static int getTempVoiceDefaultMaxMembers() {
         if (!root.has("tempVoice")) return 5;
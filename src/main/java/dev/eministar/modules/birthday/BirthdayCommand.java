@@ -16,7 +16,7 @@ public class BirthdayCommand implements Command {
 
     @Override
     public String description() {
-        return "Verwalte Geburtstage: set/remove/list";
+        return "Verwalte Geburtstage: set/remove/list/timezone";
     }
 
     @Override
@@ -55,6 +55,12 @@ public class BirthdayCommand implements Command {
             BirthdayListener.updateListEmbed(event.getGuild().getId(), event.getJDA());
         } else if (sub.equals("list")) {
             BirthdayListener.sendListEmbed(event.getGuild().getId(), event.getChannel().asTextChannel());
+        } else if (sub.equals("timezone")) {
+            if (args.length < 2) {
+                event.getChannel().sendMessage("Usage: birthday timezone <Zone> (z.B. Europe/Berlin, America/New_York)").queue();
+                return;
+            }
+            event.getChannel().sendMessage(setTimezone(event.getGuild().getId(), event.getAuthor().getId(), args[1])).queue();
         } else {
             event.getChannel().sendMessage("Unbekannter Unterbefehl: " + sub).queue();
         }
@@ -156,10 +162,33 @@ public class BirthdayCommand implements Command {
                     }
                 });
             }
+            case "timezone" -> {
+                var zoneOpt = event.getOption("zone");
+                if (zoneOpt == null) {
+                    event.reply(EmojiUtil.wrap("❌") + " Bitte gib eine Zeitzone an!").setEphemeral(true).queue();
+                    return;
+                }
+                event.reply(setTimezone(event.getGuild().getId(), event.getUser().getId(), zoneOpt.getAsString()))
+                        .setEphemeral(true)
+                        .queue();
+            }
             default -> event.reply(EmojiUtil.wrap("❌") + " Unbekannter Befehl!").setEphemeral(true).queue();
         }
     }
 
+    private static String setTimezone(String guildId, String userId, String input) {
+        java.time.ZoneId zone;
+        try {
+            zone = java.time.ZoneId.of(input.trim());
+        } catch (java.time.DateTimeException e) {
+            return EmojiUtil.wrap("❌") + " Unbekannte Zeitzone: `" + input + "` (z.B. Europe/Berlin, America/New_York)";
+        }
+        if (!BirthdayService.setTimezone(guildId, userId, zone.getId())) {
+            return EmojiUtil.wrap("❌") + " Du hast keinen Geburtstag eingetragen!";
+        }
+        return EmojiUtil.wrap("🌍") + " Zeitzone gesetzt: **" + zone.getId() + "** - gratuliert wird um Mitternacht deiner Zeit.";
+    }
+
     @Override
     public net.dv8tion.jda.api.interactions.commands.build.CommandData getSlashCommandData() {
         return Commands.slash("birthday", description())
@@ -169,7 +198,9 @@ public class BirthdayCommand implements Command {
                                 .addOption(OptionType.INTEGER, "month", "Monat (1-12)", true)
                                 .addOption(OptionType.INTEGER, "year", "Jahr (optional)", false),
                         new net.dv8tion.jda.api.interactions.commands.build.SubcommandData("remove", "Entferne deinen Geburtstag"),
-                        new net.dv8tion.jda.api.interactions.commands.build.SubcommandData("list", "Zeige alle Geburtstage")
+                        new net.dv8tion.jda.api.interactions.commands.build.SubcommandData("list", "Zeige alle Geburtstage"),
+                        new net.dv8tion.jda.api.interactions.commands.build.SubcommandData("timezone", "Setze deine Zeitzone für die Gratulation")
+                                .addOption(OptionType.STRING, "zone", "z.B. Europe/Berlin", true)
                 );
     }
 }
@@ -0,0 +1,215 @@
+package dev.eministar.modules.birthday;
+
+import dev.eministar.util.EmojiUtil;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Baut die Geburtstagsliste als eine oder mehrere Embed-Seiten.
+ * Pro Guild und Monat werden die fertig formatierten Felder gecacht; {@link BirthdayService} verwirft beim
+ * Setzen/Entfernen nur den betroffenen Monat, {@link BirthdayListener} bei Namensänderungen, Beitritt und
+ * Austritt. Alle anderen werden unverändert wiederverwendet. Monate mit Mitgliedern, die (noch) nicht im
+ * Cache waren, werden nicht gecacht.
+ * Felder über 1024 Zeichen werden geteilt, Seiten über 25 Felder bzw. das 6000-Zeichen-Limit ebenso.
+ * Jede Seite hat eine Signatur, damit beim Veröffentlichen nur geänderte Seiten bearbeitet werden.
+ */
+public class BirthdayListRenderer {
+    private static final int FIELD_LIMIT = MessageEmbed.VALUE_MAX_LENGTH;
+    private static final int MAX_FIELDS = 25;
+    // etwas unter MessageEmbed.EMBED_MAX_LENGTH_BOT, für Seitenzahl im Titel
+    private static final int PAGE_BUDGET = 5800;
+
+    private static final String TITLE = EmojiUtil.wrap("🎂") + " Geburtstagsliste " + EmojiUtil.wrap("🎉");
+    private static final String DESCRIPTION = EmojiUtil.wrap("🎈") + " Hier sind alle Geburtstage aufgelistet! " + EmojiUtil.wrap("✨");
+    private static final String FOOTER = "Nutze /birthday set <Tag> <Monat> [Jahr] um deinen Geburtstag hinzuzufügen " + EmojiUtil.wrap("🎁");
+    private static final Color COLOR = new Color(0xFFB6C1);
+
+    private record Field(String name, String value) {
+        int length() {
+            return name.length() + value.length();
+        }
+    }
+
+    public record Page(MessageEmbed embed, String signature) {
+    }
+
+    private record CachedMonth(int version, List<Field> fields) {
+    }
+
+    private record RenderedMonth(List<Field> fields, boolean complete) {
+    }
+
+    private static final class GuildList {
+        // Zähler statt Lock: invalidate() läuft unter dem Lock des BirthdayService, render() ruft ihn auf
+        final AtomicIntegerArray versions = new AtomicIntegerArray(13);
+        final AtomicReferenceArray<CachedMonth> months = new AtomicReferenceArray<>(13);
+        List<String> published = new ArrayList<>();
+    }
+
+    private static final Map<String, GuildList> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Monat beim nächsten Rendern neu aufbauen.
+     */
+    public static void invalidate(String guildId, int month) {
+        GuildList list = cache.get(guildId);
+        if (list == null || month < 1 || month > 12) return;
+        list.versions.incrementAndGet(month);
+    }
+
+    public static List<Page> render(JDA jda, String guildId) {
+        GuildList list = cache.computeIfAbsent(guildId, id -> new GuildList());
+        List<Field> fields = new ArrayList<>();
+        for (int m = 1; m <= 12; m++) {
+            // Version vor den Daten lesen - eine Änderung währenddessen macht den Eintrag sofort wieder ungültig
+            int version = list.versions.get(m);
+            CachedMonth cached = list.months.get(m);
+            if (cached != null && cached.version() == version) {
+                fields.addAll(cached.fields());
+                continue;
+            }
+            RenderedMonth rendered = renderMonth(jda, guildId, m);
+            // nur mit echten Namen cachen, sonst bliebe ein <@id> aus kaltem Member-Cache stehen
+            list.months.set(m, rendered.complete() ? new CachedMonth(version, rendered.fields()) : null);
+            fields.addAll(rendered.fields());
+        }
+        return paginate(fields);
+    }
+
+    /**
+     * Signaturen der zuletzt erfolgreich veröffentlichten Seiten (leer nach Neustart).
+     */
+    public static List<String> published(String guildId) {
+        GuildList list = cache.get(guildId);
+        if (list == null) return List.of();
+        synchronized (list) {
+            return new ArrayList<>(list.published);
+        }
+    }
+
+    public static void setPublished(String guildId, List<String> signatures) {
+        GuildList list = cache.computeIfAbsent(guildId, id -> new GuildList());
+        synchronized (list) {
+            list.published = new ArrayList<>(signatures);
+        }
+    }
+
+    private static RenderedMonth renderMonth(JDA jda, String guildId, int month) {
+        String name = getMonthEmoji(month) + " " + monthName(month);
+        Map<String, BirthdayService.BirthdayEntry> entries = BirthdayService.getBirthdaysInMonth(guildId, month);
+        if (entries.isEmpty()) {
+            return new RenderedMonth(List.of(new Field(name, EmojiUtil.wrap("💤") + " Keine Einträge")), true);
+        }
+
+        List<Field> out = new ArrayList<>(1);
+        StringBuilder sb = new StringBuilder();
+        boolean complete = true;
+        for (var e : entries.entrySet()) {
+            String displayName = displayName(jda, guildId, e.getKey());
+            if (displayName == null) {
+                complete = false;
+                displayName = "<@" + e.getKey() + ">";
+            }
+            String line = EmojiUtil.wrap("🎈") + displayName + " — " + e.getValue().pretty();
+            if (sb.length() > 0 && sb.length() + 1 + line.length() > FIELD_LIMIT) {
+                out.add(new Field(out.isEmpty() ? name : name + " (Forts.)", sb.toString()));
+                sb.setLength(0);
+            }
+            if (sb.length() > 0) sb.append('\n');
+            sb.append(line.length() > FIELD_LIMIT ? line.substring(0, FIELD_LIMIT) : line);
+        }
+        out.add(new Field(out.isEmpty() ? name : name + " (Forts.)", sb.toString()));
+        return new RenderedMonth(out, complete);
+    }
+
+    private static List<Page> paginate(List<Field> fields) {
+        int header = TITLE.length() + DESCRIPTION.length() + FOOTER.length();
+        List<List<Field>> pages = new ArrayList<>();
+        List<Field> current = new ArrayList<>();
+        int length = header;
+        for (Field f : fields) {
+            if (!current.isEmpty() && (current.size() >= MAX_FIELDS || length + f.length() > PAGE_BUDGET)) {
+                pages.add(current);
+                current = new ArrayList<>();
+                length = header;
+            }
+            current.add(f);
+            length += f.length();
+        }
+        pages.add(current);
+
+        List<Page> out = new ArrayList<>(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            String title = pages.size() == 1 ? TITLE : TITLE + " (Seite " + (i + 1) + ")";
+            EmbedBuilder eb = new EmbedBuilder();
+            eb.setTitle(title);
+            eb.setColor(COLOR);
+            if (i == 0) eb.setDescription(DESCRIPTION);
+            StringBuilder signature = new StringBuilder(title);
+            for (Field f : pages.get(i)) {
+                eb.addField(f.name(), f.value(), false);
+                signature.append('\u0000').append(f.name()).append('\u0000').append(f.value());
+            }
+            eb.setFooter(FOOTER);
+            out.add(new Page(eb.build(), signature.toString()));
+        }
+        return out;
+    }
+
+    // null, wenn das Mitglied nicht im Cache ist
+    private static String displayName(JDA jda, String guildId, String userId) {
+        try {
+            var guild = jda.getGuildById(guildId);
+            if (guild != null) {
+                var member = guild.getMemberById(userId);
+                if (member != null) return member.getEffectiveName();
+            }
+        } catch (Exception ignored) {}
+        return null;
+    }
+
+    private static String monthName(int m) {
+        return switch (m) {
+            case 1 -> "Januar";
+            case 2 -> "Februar";
+            case 3 -> "März";
+            case 4 -> "April";
+            case 5 -> "Mai";
+            case 6 -> "Juni";
+            case 7 -> "Juli";
+            case 8 -> "August";
+            case 9 -> "September";
+            case 10 -> "Oktober";
+            case 11 -> "November";
+            case 12 -> "Dezember";
+            default -> "Unbekannt";
+        };
+    }
+
+    private static String getMonthEmoji(int m) {
+        return switch (m) {
+            case 1 -> "❄️"; // Winter
+            case 2 -> "💝"; // Valentine
+            case 3 -> "🌸"; // Frühling
+            case 4 -> "🐰"; // Ostern
+            case 5 -> "🌺"; // Frühling
+            case 6 -> "☀️"; // Sommer
+            case 7 -> "🏖️"; // Sommer
+            case 8 -> "🌻"; // Sommer
+            case 9 -> "🍂"; // Herbst
+            case 10 -> "🎃"; // Halloween
+            case 11 -> "🍁"; // Herbst
+            case 12 -> "🎄"; // Weihnachten
+            default -> "📅";
+        };
+    }
+}
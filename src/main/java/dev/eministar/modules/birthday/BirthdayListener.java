@@ -8,6 +8,10 @@ import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateNicknameEvent;
+import net.dv8tion.jda.api.events.user.update.UserUpdateGlobalNameEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import org.slf4j.Logger;
@@ -16,11 +20,16 @@ import org.slf4j.LoggerFactory;
 import java.awt.Color;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class BirthdayListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(BirthdayListener.class);
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private static final ExecutorService LIST_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "birthday-list");
+        t.setDaemon(true);
+        return t;
+    });
 
     @Override
     public void onReady(ReadyEvent event) {
@@ -38,121 +47,164 @@ public class BirthdayListener extends ListenerAdapter {
         }
     }
 
-    // Timezone for birthday checks - Europe/Berlin for German server
-    private static final java.time.ZoneId TIMEZONE = java.time.ZoneId.of("Europe/Berlin");
+    // Die Liste zeigt Anzeigenamen - bei Änderungen den Monat des Mitglieds im Render-Cache verwerfen
+    @Override
+    public void onGuildMemberUpdateNickname(GuildMemberUpdateNicknameEvent event) {
+        memberChanged(event.getGuild().getId(), event.getUser().getId());
+    }
 
-    // Public start so we can call it if needed
-    public void start(JDA jda) {
-        // Schedule to run exactly at midnight in configured timezone, and every 24h after
-        long initialDelay = computeSecondsUntilMidnight();
-        scheduler.scheduleAtFixedRate(() -> runDaily(jda), initialDelay, 24 * 60 * 60, TimeUnit.SECONDS);
-        logger.info("Geburtstags-Checker gestartet. Nächste Prüfung um Mitternacht ({}), in {} Sekunden.", TIMEZONE, initialDelay);
+    @Override
+    public void onGuildMemberJoin(GuildMemberJoinEvent event) {
+        memberChanged(event.getGuild().getId(), event.getUser().getId());
     }
 
-    private long computeSecondsUntilMidnight() {
-        java.time.ZonedDateTime now = java.time.ZonedDateTime.now(TIMEZONE);
-        java.time.ZonedDateTime nextMidnight = now.toLocalDate().plusDays(1).atStartOfDay(TIMEZONE);
-        long secondsUntilMidnight = java.time.Duration.between(now, nextMidnight).getSeconds();
-        return Math.max(5, secondsUntilMidnight);
+    @Override
+    public void onGuildMemberRemove(GuildMemberRemoveEvent event) {
+        memberChanged(event.getGuild().getId(), event.getUser().getId());
     }
 
-    private void runDaily(JDA jda) {
-        try {
-            for (var guild : jda.getGuilds()) {
-                String guildId = guild.getId();
-                // First remove birthday role from everyone who had it yesterday
-                removeBirthdayRoleFromAll(guild);
-                // Then check and assign for today's birthdays
-                checkGuildBirthdays(guildId, jda);
-            }
-        } catch (Exception e) {
-            logger.error("Fehler beim Überprüfen der Geburtstage", e);
+    @Override
+    public void onUserUpdateGlobalName(UserUpdateGlobalNameEvent event) {
+        for (Guild guild : event.getUser().getMutualGuilds()) {
+            memberChanged(guild.getId(), event.getUser().getId());
         }
     }
 
-    private void removeBirthdayRoleFromAll(Guild guild) {
-        String roleId = Config.getBirthdayRoleId();
-        if (roleId.isEmpty()) return;
+    private static void memberChanged(String guildId, String userId) {
+        BirthdayService.getBirthday(guildId, userId)
+                .ifPresent(b -> BirthdayListRenderer.invalidate(guildId, b.month));
+    }
 
-        Role birthdayRole = guild.getRoleById(roleId);
-        if (birthdayRole == null) {
-            logger.warn("Birthday role not found: {}", roleId);
-            return;
-        }
+    // Public start so we can call it if needed
+    public void start(JDA jda) {
+        // Gratulationen um Mitternacht in der Zeitzone des jeweiligen Nutzers
+        BirthdayScheduler.start((guildId, localDay, userIds) -> congratulate(jda, guildId, localDay, userIds));
 
-        // Remove role from all members who have it
-        guild.findMembersWithRoles(birthdayRole).onSuccess(members -> {
-            for (Member member : members) {
-                guild.removeRoleFromMember(member, birthdayRole).queue(
-                    success -> logger.debug("Removed birthday role from {}", member.getEffectiveName()),
-                    error -> logger.warn("Failed to remove birthday role from {}: {}", member.getEffectiveName(), error.getMessage())
-                );
-            }
-        });
+        // vergebene Rollen nach Ablauf des Geburtstags wieder entziehen
+        BirthdayRoleJob.start(jda);
     }
 
-    private void checkGuildBirthdays(String guildId, JDA jda) {
-        Map<String, BirthdayService.BirthdayEntry> all = BirthdayService.getAllBirthdays(guildId);
-        if (all.isEmpty()) return;
-        LocalDate today = LocalDate.now(TIMEZONE);
-        String isoToday = today.toString(); // yyyy-MM-dd
+    /**
+     * Vom {@link BirthdayScheduler} aufgerufen, sobald für diese Nutzer in ihrer Zeitzone {@code localDay} beginnt.
+     * Mitglieder kommen erst aus dem Cache, der Rest per einer einzigen Gateway-Anfrage; mehrere
+     * Geburtstagskinder bekommen eine gemeinsame Nachricht.
+     */
+    private void congratulate(JDA jda, String guildId, LocalDate localDay, List<String> userIds) {
+        String isoDay = localDay.toString(); // yyyy-MM-dd
 
         Guild guild = jda.getGuildById(guildId);
         if (guild == null) return;
+        TextChannel ch = resolveCongratsChannel(jda, guildId);
+        if (ch == null) return;
+
+        // inzwischen entfernt oder schon gratuliert
+        Map<String, BirthdayService.BirthdayEntry> pending = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            BirthdayService.getBirthday(guildId, userId)
+                    .filter(b -> !b.lastCongratsDate.equals(isoDay))
+                    .ifPresent(b -> pending.put(userId, b));
+        }
+        if (pending.isEmpty()) return;
+
+        Map<String, Member> members = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (String userId : pending.keySet()) {
+            Member cached = guild.getMemberById(userId);
+            if (cached != null) members.put(userId, cached);
+            else misses.add(Long.parseLong(userId));
+        }
+        if (misses.isEmpty()) {
+            sendCongrats(guild, ch, localDay, pending, members);
+            return;
+        }
+        guild.retrieveMembersByIds(misses)
+                .onSuccess(found -> {
+                    found.forEach(m -> members.put(m.getId(), m));
+                    sendCongrats(guild, ch, localDay, pending, members);
+                })
+                .onError(err -> {
+                    logger.warn("Konnte Geburtstagskinder nicht laden ({}), gratuliere ohne Mitgliedsdaten", err.getMessage());
+                    sendCongrats(guild, ch, localDay, pending, members);
+                });
+    }
 
-        // Get birthday role if configured
-        String roleId = Config.getBirthdayRoleId();
-        Role birthdayRole = roleId.isEmpty() ? null : guild.getRoleById(roleId);
+    // members enthält nur gefundene Mitglieder; wer den Server verlassen hat, wird nur erwähnt
+    private void sendCongrats(Guild guild, TextChannel ch, LocalDate localDay,
+                              Map<String, BirthdayService.BirthdayEntry> celebrants, Map<String, Member> members) {
+        String guildId = guild.getId();
+        String isoDay = localDay.toString();
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setTitle(EmojiUtil.wrap("🎂") + " Alles Gute zum Geburtstag! " + EmojiUtil.wrap("🎉"));
 
-        for (var e : all.entrySet()) {
-            String userId = e.getKey();
+        if (celebrants.size() == 1) {
+            var e = celebrants.entrySet().iterator().next();
             BirthdayService.BirthdayEntry b = e.getValue();
-            if (b.day == today.getDayOfMonth() && b.month == today.getMonthValue()) {
-                // skip if already sent today
-                if (b.lastCongratsDate.equals(isoToday)) continue;
-                TextChannel ch = resolveCongratsChannel(jda, guildId);
-                if (ch == null) continue;
-                final String finalGuildId = guildId;
-                final Role finalBirthdayRole = birthdayRole;
-                jda.retrieveUserById(userId).queue(user -> {
-                    String mention = user.getAsMention();
-                    EmbedBuilder eb = new EmbedBuilder();
-                    eb.setTitle(EmojiUtil.wrap("🎂") + " Alles Gute zum Geburtstag! " + EmojiUtil.wrap("🎉"));
+            Member member = members.get(e.getKey());
+            String mention = "<@" + e.getKey() + ">";
 
-                    String ageText = "";
-                    if (b.year != null) {
-                        int age = today.getYear() - b.year;
-                        ageText = "\n" + EmojiUtil.wrap("🎈") + " Du wirst heute **" + age + " Jahre** alt!";
-                    }
-
-                    eb.setDescription(
-                        EmojiUtil.wrap("🎊") + " **Happy Birthday, " + mention + "!** " + EmojiUtil.wrap("🎊") +
-                        ageText +
-                        "\n\n" + EmojiUtil.wrap("🎁") + " Wir wünschen dir einen wundervollen Tag voller Freude, Glück und natürlich ganz viel Kaffee! " + EmojiUtil.wrap("☕") +
-                        "\n\n" + EmojiUtil.wrap("✨") + " Genieße deinen besonderen Tag! " + EmojiUtil.wrap("🥳")
-                    );
+            String ageText = "";
+            if (b.year != null) {
+                int age = localDay.getYear() - b.year;
+                ageText = "\n" + EmojiUtil.wrap("🎈") + " Du wirst heute **" + age + " Jahre** alt!";
+            }
 
-                    if (user.getAvatarUrl() != null) eb.setThumbnail(user.getAvatarUrl());
-                    eb.setColor(new Color(0xFFD1DC));
-                    eb.setFooter("🎂 Geburtstags-Bot • Lattendaddy", null);
+            eb.setDescription(
+                EmojiUtil.wrap("🎊") + " **Happy Birthday, " + mention + "!** " + EmojiUtil.wrap("🎊") +
+                ageText +
+                "\n\n" + EmojiUtil.wrap("🎁") + " Wir wünschen dir einen wundervollen Tag voller Freude, Glück und natürlich ganz viel Kaffee! " + EmojiUtil.wrap("☕") +
+                "\n\n" + EmojiUtil.wrap("✨") + " Genieße deinen besonderen Tag! " + EmojiUtil.wrap("🥳")
+            );
+            if (member != null) eb.setThumbnail(member.getEffectiveAvatarUrl());
+        } else {
+            StringBuilder list = new StringBuilder();
+            int shown = 0;
+            for (var e : celebrants.entrySet()) {
+                // Beschreibung ist auf 4096 Zeichen begrenzt
+                if (list.length() > 3500) {
+                    list.append("\n… und ").append(celebrants.size() - shown).append(" weitere");
+                    break;
+                }
+                shown++;
+                list.append("\n").append(EmojiUtil.wrap("🎈")).append(" <@").append(e.getKey()).append(">");
+                if (e.getValue().year != null) {
+                    list.append(" wird heute **").append(localDay.getYear() - e.getValue().year).append(" Jahre** alt");
+                }
+            }
+            eb.setDescription(
+                EmojiUtil.wrap("🎊") + " **Heute feiern gleich " + celebrants.size() + " Leute Geburtstag!** " + EmojiUtil.wrap("🎊") +
+                "\n" + list +
+                "\n\n" + EmojiUtil.wrap("🎁") + " Wir wünschen euch einen wundervollen Tag voller Freude, Glück und natürlich ganz viel Kaffee! " + EmojiUtil.wrap("☕") +
+                "\n\n" + EmojiUtil.wrap("✨") + " Genießt euren besonderen Tag! " + EmojiUtil.wrap("🥳")
+            );
+        }
+        eb.setColor(new Color(0xFFD1DC));
+        eb.setFooter("🎂 Geburtstags-Bot • Lattendaddy", null);
 
-                    ch.sendMessageEmbeds(eb.build()).queue(msg -> {
-                        // store last sent id + date
-                        BirthdayService.setLastCongrats(finalGuildId, userId, msg.getId(), isoToday);
-                    });
+        ch.sendMessageEmbeds(eb.build()).queue(msg -> {
+            // store last sent id + date
+            celebrants.keySet().forEach(userId -> BirthdayService.setLastCongrats(guildId, userId, msg.getId(), isoDay));
+        });
 
-                    // Assign birthday role if configured
-                    if (finalBirthdayRole != null) {
-                        guild.retrieveMemberById(userId).queue(member -> {
-                            guild.addRoleToMember(member, finalBirthdayRole).queue(
-                                success -> logger.info("Assigned birthday role to {} for their birthday", member.getEffectiveName()),
-                                error -> logger.warn("Failed to assign birthday role to {}: {}", member.getEffectiveName(), error.getMessage())
-                            );
-                        }, error -> logger.warn("Could not find member {} for birthday role", userId));
-                    }
-                });
+        // Assign birthday role if configured
+        String roleId = Config.getBirthdayRoleId();
+        Role birthdayRole = roleId.isEmpty() ? null : guild.getRoleById(roleId);
+        if (birthdayRole == null) return;
+        celebrants.forEach((userId, b) -> {
+            Member member = members.get(userId);
+            if (member == null) {
+                logger.warn("Could not find member {} for birthday role", userId);
+                return;
             }
-        }
+            // bis Mitternacht nach dem Geburtstag in der Zeitzone des Nutzers
+            long expiresAt = localDay.plusDays(1).atStartOfDay(BirthdayScheduler.zoneOf(b)).toInstant().toEpochMilli();
+            guild.addRoleToMember(member, birthdayRole).queue(
+                success -> {
+                    BirthdayService.recordRoleGrant(guildId, userId, birthdayRole.getId(), expiresAt);
+                    logger.info("Assigned birthday role to {} for their birthday", member.getEffectiveName());
+                },
+                error -> logger.warn("Failed to assign birthday role to {}: {}", member.getEffectiveName(), error.getMessage())
+            );
+        });
     }
 
     private static TextChannel resolveCongratsChannel(JDA jda, String guildId) {
@@ -173,6 +225,15 @@ public class BirthdayListener extends ListenerAdapter {
 
     // Public helpers to update or send the list embed
     public static void updateListEmbed(String guildId, JDA jda) {
+        // ein Thread für alle Listen, damit sich zwei Updates derselben Guild nicht überholen
+        LIST_EXECUTOR.execute(() -> publishList(guildId, jda));
+    }
+
+    /**
+     * Bearbeitet nur die Seiten, deren Inhalt sich seit dem letzten Veröffentlichen geändert hat;
+     * zusätzliche Seiten werden neu gesendet, überzählige gelöscht.
+     */
+    private static void publishList(String guildId, JDA jda) {
         TextChannel ch = resolveListChannel(jda, guildId);
         if (ch == null) {
             logger.debug("Kein Channel für Geburtstagsliste konfiguriert für Guild {}", guildId);
@@ -180,51 +241,82 @@ public class BirthdayListener extends ListenerAdapter {
         }
 
         try {
-            Map<String, BirthdayService.BirthdayEntry> all = BirthdayService.getAllBirthdays(guildId);
-            EmbedBuilder eb = buildListEmbed(jda, guildId, all);
-            String messageId = BirthdayService.getListMessageId(guildId);
-
-            if (messageId != null && !messageId.isEmpty()) {
-                // Try to edit existing message
-                ch.retrieveMessageById(messageId).queue(
-                    msg -> msg.editMessageEmbeds(eb.build()).queue(
-                        success -> logger.debug("Geburtstagsliste aktualisiert für Guild {}", guildId),
-                        err -> logger.warn("Fehler beim Bearbeiten der Geburtstagsliste, sende neue: {}", err.getMessage())
-                    ),
-                    // If message not found, send new one
-                    err -> ch.sendMessageEmbeds(eb.build()).queue(
-                        sent -> {
-                            BirthdayService.setListMessageId(guildId, sent.getId());
-                            logger.info("Neue Geburtstagsliste gesendet für Guild {} (Message-ID: {})", guildId, sent.getId());
-                        },
-                        sendErr -> logger.error("Fehler beim Senden der Geburtstagsliste: {}", sendErr.getMessage())
-                    )
-                );
-            } else {
-                // No message ID stored, send new one
-                ch.sendMessageEmbeds(eb.build()).queue(
-                    sent -> {
-                        BirthdayService.setListMessageId(guildId, sent.getId());
-                        logger.info("Geburtstagsliste erstellt für Guild {} (Message-ID: {})", guildId, sent.getId());
-                    },
-                    err -> logger.error("Fehler beim Erstellen der Geburtstagsliste: {}", err.getMessage())
-                );
+            List<BirthdayListRenderer.Page> pages = BirthdayListRenderer.render(jda, guildId);
+            List<String> published = BirthdayListRenderer.published(guildId);
+            List<String> ids = BirthdayService.getListMessageIds(guildId);
+            List<String> newIds = new ArrayList<>(pages.size());
+            List<String> newPublished = new ArrayList<>(pages.size());
+            boolean done = false;
+            try {
+                publishPages(ch, guildId, pages, published, ids, newIds, newPublished);
+                for (int i = pages.size(); i < ids.size(); i++) {
+                    ch.deleteMessageById(ids.get(i)).queue(null, err -> {});
+                }
+                done = true;
+            } finally {
+                // auch bei Abbruch mittendrin die schon gesendeten Seiten speichern und die restlichen alten
+                // behalten, sonst verwaisen sie - der nächste Lauf bearbeitet bzw. löscht sie
+                List<String> persisted = new ArrayList<>(newIds);
+                if (!done && ids.size() > newIds.size()) persisted.addAll(ids.subList(newIds.size(), ids.size()));
+                if (!persisted.equals(ids)) BirthdayService.setListMessageIds(guildId, persisted);
+                BirthdayListRenderer.setPublished(guildId, newPublished);
             }
         } catch (Exception e) {
             logger.error("Fehler beim Aktualisieren der Geburtstagsliste für Guild {}", guildId, e);
         }
     }
 
+    private static void publishPages(TextChannel ch, String guildId, List<BirthdayListRenderer.Page> pages, List<String> published,
+                                     List<String> ids, List<String> newIds, List<String> newPublished) {
+        for (int i = 0; i < pages.size(); i++) {
+            BirthdayListRenderer.Page page = pages.get(i);
+            String id = i < ids.size() ? ids.get(i) : null;
+            if (id != null && i < published.size() && published.get(i).equals(page.signature())) {
+                newIds.add(id);
+                newPublished.add(page.signature());
+                continue;
+            }
+            if (id != null) {
+                try {
+                    ch.editMessageEmbedsById(id, page.embed()).complete();
+                    newIds.add(id);
+                    newPublished.add(page.signature());
+                    continue;
+                } catch (Exception e) {
+                    logger.warn("Fehler beim Bearbeiten der Geburtstagsliste (Seite {}), sende neu: {}", i + 1, e.getMessage());
+                }
+            }
+            String sent = ch.sendMessageEmbeds(page.embed()).complete().getId();
+            newIds.add(sent);
+            newPublished.add(page.signature());
+            logger.info("Geburtstagsliste Seite {} gesendet für Guild {} (Message-ID: {})", i + 1, guildId, sent);
+        }
+    }
+
     public static void sendListEmbed(String guildId, TextChannel channel) {
-        Map<String, BirthdayService.BirthdayEntry> all = BirthdayService.getAllBirthdays(guildId);
-        EmbedBuilder eb = buildListEmbed(channel.getJDA(), guildId, all);
-        channel.sendMessageEmbeds(eb.build()).queue(sent -> BirthdayService.setListMessageId(guildId, sent.getId()));
+        List<BirthdayListRenderer.Page> pages = BirthdayListRenderer.render(channel.getJDA(), guildId);
+        LIST_EXECUTOR.execute(() -> {
+            try {
+                List<String> ids = new ArrayList<>(pages.size());
+                List<String> signatures = new ArrayList<>(pages.size());
+                for (BirthdayListRenderer.Page page : pages) {
+                    ids.add(channel.sendMessageEmbeds(page.embed()).complete().getId());
+                    signatures.add(page.signature());
+                }
+                BirthdayService.setListMessageIds(guildId, ids);
+                BirthdayListRenderer.setPublished(guildId, signatures);
+            } catch (Exception e) {
+                logger.error("Fehler beim Senden der Geburtstagsliste: {}", e.getMessage());
+            }
+        });
     }
 
     public static void sendListEmbedToHook(String guildId, net.dv8tion.jda.api.interactions.InteractionHook hook, JDA jda) {
-        Map<String, BirthdayService.BirthdayEntry> all = BirthdayService.getAllBirthdays(guildId);
-        EmbedBuilder eb = buildListEmbed(jda, guildId, all);
-        hook.editOriginalEmbeds(eb.build()).queue();
+        List<BirthdayListRenderer.Page> pages = BirthdayListRenderer.render(jda, guildId);
+        hook.editOriginalEmbeds(pages.get(0).embed()).queue();
+        for (int i = 1; i < pages.size(); i++) {
+            hook.sendMessageEmbeds(pages.get(i).embed()).queue();
+        }
     }
 
     private static TextChannel resolveListChannel(JDA jda, String guildId) {
@@ -239,80 +331,4 @@ public class BirthdayListener extends ListenerAdapter {
         if (defaultCh instanceof TextChannel tc) return tc;
         return null;
     }
-
-    private static EmbedBuilder buildListEmbed(JDA jda, String guildId, Map<String, BirthdayService.BirthdayEntry> all) {
-        EmbedBuilder eb = new EmbedBuilder();
-        eb.setTitle(EmojiUtil.wrap("🎂") + " Geburtstagsliste " + EmojiUtil.wrap("🎉"));
-        eb.setColor(new Color(0xFFB6C1));
-        eb.setDescription(EmojiUtil.wrap("🎈") + " Hier sind alle Geburtstage aufgelistet! " + EmojiUtil.wrap("✨"));
-
-        // group by month
-        Map<Integer, List<String>> byMonth = new TreeMap<>();
-        for (var e : all.entrySet()) {
-            String userId = e.getKey();
-            BirthdayService.BirthdayEntry b = e.getValue();
-            byMonth.computeIfAbsent(b.month, k -> new ArrayList<>()).add(formatEntry(jda, guildId, userId, b));
-        }
-
-        for (int m = 1; m <= 12; m++) {
-            List<String> list = byMonth.getOrDefault(m, Collections.emptyList());
-            String monthEmoji = getMonthEmoji(m);
-            if (list.isEmpty()) {
-                eb.addField(monthEmoji + " " + monthName(m), EmojiUtil.wrap("💤") + " Keine Einträge", false);
-            } else {
-                eb.addField(monthEmoji + " " + monthName(m), String.join("\n", list), false);
-            }
-        }
-
-        eb.setFooter("Nutze /birthday set <Tag> <Monat> [Jahr] um deinen Geburtstag hinzuzufügen " + EmojiUtil.wrap("🎁"));
-        return eb;
-    }
-
-    private static String formatEntry(JDA jda, String guildId, String userId, BirthdayService.BirthdayEntry b) {
-        String name = "<@" + userId + ">";
-        try {
-            var guild = jda.getGuildById(guildId);
-            if (guild != null) {
-                var member = guild.getMemberById(userId);
-                if (member != null) name = member.getEffectiveName();
-            }
-        } catch (Exception ignored) {}
-        return EmojiUtil.wrap("🎈") + name + " — " + b.pretty();
-    }
-
-    private static String monthName(int m) {
-        return switch (m) {
-            case 1 -> "Januar";
-            case 2 -> "Februar";
-            case 3 -> "März";
-            case 4 -> "April";
-            case 5 -> "Mai";
-            case 6 -> "Juni";
-            case 7 -> "Juli";
-            case 8 -> "August";
-            case 9 -> "September";
-            case 10 -> "Oktober";
-            case 11 -> "November";
-            case 12 -> "Dezember";
-            default -> "Unbekannt";
-        };
-    }
-
-    private static String getMonthEmoji(int m) {
-        return switch (m) {
-            case 1 -> "❄️"; // Winter
-            case 2 -> "💝"; // Valentine
-            case 3 -> "🌸"; // Frühling
-            case 4 -> "🐰"; // Ostern
-            case 5 -> "🌺"; // Frühling
-            case 6 -> "☀️"; // Sommer
-            case 7 -> "🏖️"; // Sommer
-            case 8 -> "🌻"; // Sommer
-            case 9 -> "🍂"; // Herbst
-            case 10 -> "🎃"; // Halloween
-            case 11 -> "🍁"; // Herbst
-            case 12 -> "🎄"; // Weihnachten
-            default -> "📅";
-        };
-    }
 }
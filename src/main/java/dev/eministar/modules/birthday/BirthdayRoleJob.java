@@ -0,0 +1,220 @@
+package dev.eministar.modules.birthday;
+
+import dev.eministar.config.Config;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+import net.dv8tion.jda.api.entities.UserSnowflake;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.exceptions.HierarchyException;
+import net.dv8tion.jda.api.exceptions.InsufficientPermissionException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Entzieht Geburtstagsrollen, die der Bot selbst vergeben hat.
+ * Statt jede Nacht alle Rolleninhaber zu suchen, werden nur die in {@link BirthdayService#expiredRoleGrants}
+ * gespeicherten Vergaben abgearbeitet - eine Anfrage nach der anderen mit festem Abstand, damit auch viele
+ * Geburtstage auf einmal nicht ins Rate-Limit laufen. Fehlgeschlagene Anfragen werden mit wachsender Pause
+ * wiederholt; der Eintrag bleibt gespeichert, bis der Entzug geklappt hat. Nach {@link #MAX_ATTEMPTS} Versuchen
+ * ruht die Vergabe {@link #PARK_MILLIS}, dauerhafte Fehler (fehlende Rechte, Rolle über dem Bot, unbekannte
+ * Rolle/Mitglied) verwerfen den Eintrag sofort.
+ * Rollen, die noch vor dem Speichern der Vergaben verteilt wurden, werden pro Guild einmalig über
+ * {@code findMembersWithRoles} eingesammelt.
+ */
+public class BirthdayRoleJob {
+    private static final Logger logger = LoggerFactory.getLogger(BirthdayRoleJob.class);
+
+    private static final long SCAN_INTERVAL_SECONDS = 60;
+    private static final long PACE_MILLIS = 750;
+    private static final long RETRY_BASE_MILLIS = 5_000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long PARK_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    // Marker für Rollen ohne gespeicherte Vergabe (vor roleGrants verteilt)
+    private static final long LEGACY_EXPIRES_AT = -1;
+
+    private record Task(BirthdayService.ExpiredGrant grant, int attempt) {
+    }
+
+    private static final ConcurrentLinkedQueue<Task> queue = new ConcurrentLinkedQueue<>();
+    // Vergaben, die gerade in der Queue oder im Retry stecken
+    private static final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    // key -> frühester nächster Versuch, nach ausgeschöpften Retries; übersteht die Scans
+    private static final Map<String, Long> parkedUntil = new ConcurrentHashMap<>();
+    private static final AtomicBoolean pumping = new AtomicBoolean();
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "birthday-roles");
+        t.setDaemon(true);
+        return t;
+    });
+    private static volatile JDA jda;
+
+    public static void start(JDA instance) {
+        jda = instance;
+        if (!started.compareAndSet(false, true)) return;
+        executor.scheduleWithFixedDelay(BirthdayRoleJob::collectExpired, 5, SCAN_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        executor.schedule(BirthdayRoleJob::sweepLegacy, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Einmalig pro Guild: Rolleninhaber ohne gespeicherte Vergabe, die heute keinen Geburtstag haben, verlieren
+     * die Rolle. Wie früher über findMembersWithRoles, danach übernimmt der normale Scan.
+     */
+    private static void sweepLegacy() {
+        String roleId = Config.getBirthdayRoleId();
+        JDA current = jda;
+        if (current == null || roleId == null || roleId.isEmpty()) return;
+        for (Guild guild : current.getGuilds()) {
+            String guildId = guild.getId();
+            if (BirthdayService.isLegacyRolesSwept(guildId)) continue;
+            Role role = guild.getRoleById(roleId);
+            if (role == null) {
+                BirthdayService.setLegacyRolesSwept(guildId);
+                continue;
+            }
+            guild.findMembersWithRoles(role).onSuccess(members -> {
+                int found = 0;
+                for (Member member : members) {
+                    String userId = member.getId();
+                    if (BirthdayService.hasRoleGrant(guildId, userId) || hasBirthdayToday(guildId, userId)) continue;
+                    BirthdayService.ExpiredGrant g = new BirthdayService.ExpiredGrant(guildId, userId, roleId, LEGACY_EXPIRES_AT);
+                    if (inFlight.add(key(g))) {
+                        queue.add(new Task(g, 0));
+                        found++;
+                    }
+                }
+                BirthdayService.setLegacyRolesSwept(guildId);
+                if (found > 0) logger.info("Alte Geburtstagsrollen in Guild {}: {} werden entzogen", guildId, found);
+                pump();
+            }).onError(e -> logger.warn("Alte Geburtstagsrollen in Guild {} nicht abrufbar: {}", guildId, e.getMessage()));
+        }
+    }
+
+    private static boolean hasBirthdayToday(String guildId, String userId) {
+        return BirthdayService.getBirthday(guildId, userId).map(b -> {
+            LocalDate today = LocalDate.now(BirthdayScheduler.zoneOf(b));
+            return b.month == today.getMonthValue() && b.day == today.getDayOfMonth();
+        }).orElse(false);
+    }
+
+    private static String key(BirthdayService.ExpiredGrant g) {
+        return g.guildId() + ":" + g.userId();
+    }
+
+    private static void collectExpired() {
+        try {
+            long now = System.currentTimeMillis();
+            for (BirthdayService.ExpiredGrant g : BirthdayService.expiredRoleGrants(now)) {
+                Long parked = parkedUntil.get(key(g));
+                if (parked != null && parked > now) continue;
+                if (inFlight.add(key(g))) queue.add(new Task(g, 0));
+            }
+            pump();
+        } catch (Exception e) {
+            logger.error("Fehler beim Einsammeln abgelaufener Geburtstagsrollen", e);
+        }
+    }
+
+    private static void pump() {
+        if (queue.isEmpty() || !pumping.compareAndSet(false, true)) return;
+        executor.execute(BirthdayRoleJob::runNext);
+    }
+
+    // läuft nur auf dem Executor; plant sich selbst im Abstand PACE_MILLIS neu, bis die Queue leer ist
+    private static void runNext() {
+        Task task = queue.poll();
+        if (task == null) {
+            pumping.set(false);
+            // zwischen poll() und set(false) kann etwas dazugekommen sein
+            pump();
+            return;
+        }
+        try {
+            revoke(task);
+        } catch (Exception e) {
+            // HierarchyException/InsufficientPermissionException kommen synchron aus JDA
+            fail(task, e);
+        }
+        executor.schedule(BirthdayRoleJob::runNext, PACE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void revoke(Task task) {
+        BirthdayService.ExpiredGrant g = task.grant();
+        JDA current = jda;
+        Guild guild = current == null ? null : current.getGuildById(g.guildId());
+        if (guild == null) {
+            // nicht (mehr) verbunden - beim nächsten Scan erneut versuchen
+            inFlight.remove(key(g));
+            return;
+        }
+        Role role = guild.getRoleById(g.roleId());
+        if (role == null) {
+            // Rolle gelöscht, nichts mehr zu entziehen
+            done(g);
+            return;
+        }
+        guild.removeRoleFromMember(UserSnowflake.fromId(g.userId()), role).queue(
+                success -> {
+                    logger.debug("Geburtstagsrolle entzogen: {}", key(g));
+                    done(g);
+                },
+                error -> fail(task, error)
+        );
+    }
+
+    private static void fail(Task task, Throwable error) {
+        BirthdayService.ExpiredGrant g = task.grant();
+        if (error instanceof ErrorResponseException ere
+                && (ere.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER
+                || ere.getErrorResponse() == ErrorResponse.UNKNOWN_ROLE)) {
+            done(g); // Mitglied hat den Server verlassen bzw. Rolle gelöscht
+        } else if (isPermanent(error)) {
+            logger.warn("Geburtstagsrolle kann nicht entzogen werden ({}), Eintrag verworfen: {}", key(g), error.getMessage());
+            done(g);
+        } else {
+            logger.warn("Geburtstagsrolle konnte nicht entzogen werden ({}): {}", key(g), error.getMessage());
+            retry(task);
+        }
+    }
+
+    // wiederholen bringt hier nichts, bis jemand Rechte oder Rollenreihenfolge ändert
+    private static boolean isPermanent(Throwable error) {
+        if (error instanceof HierarchyException || error instanceof InsufficientPermissionException) return true;
+        return error instanceof ErrorResponseException ere
+                && ere.getErrorResponse() == ErrorResponse.MISSING_PERMISSIONS;
+    }
+
+    private static void done(BirthdayService.ExpiredGrant g) {
+        BirthdayService.removeRoleGrant(g);
+        parkedUntil.remove(key(g));
+        inFlight.remove(key(g));
+    }
+
+    private static void retry(Task task) {
+        int attempt = task.attempt() + 1;
+        if (attempt >= MAX_ATTEMPTS) {
+            // Eintrag bleibt gespeichert; erst nach der Pause nimmt ihn ein Scan wieder auf
+            parkedUntil.put(key(task.grant()), System.currentTimeMillis() + PARK_MILLIS);
+            inFlight.remove(key(task.grant()));
+            return;
+        }
+        long delay = RETRY_BASE_MILLIS << (attempt - 1);
+        executor.schedule(() -> {
+            queue.add(new Task(task.grant(), attempt));
+            pump();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,184 @@
+package dev.eministar.modules.birthday;
+
+import dev.eministar.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Löst die Geburtstagsgrüße um Mitternacht in der Zeitzone der jeweiligen Nutzer aus.
+ * <p>
+ * Jeder Geburtstag hat genau einen Eintrag in einem Min-Heap, sortiert nach dem nächsten Termin; ein einzelner
+ * Timer schläft, bis der vorderste fällig ist. Änderungen ({@link #refresh}) erhöhen eine Version pro Nutzer,
+ * veraltete Heap-Einträge werden also beim Abholen übersprungen statt gesucht und entfernt. Der Heap selbst wird
+ * bei {@link #start} aus birthdays.json aufgebaut: ein Geburtstag, der in der Zone der Nutzer heute ist und kein
+ * passendes {@code lastCongratsDate} hat, ist sofort fällig - so holt ein Neustart verpasste Grüße nach, ohne
+ * doppelt zu senden.
+ */
+public class BirthdayScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(BirthdayScheduler.class);
+
+    public interface Handler {
+        /**
+         * @param localDay der Geburtstag in der Zeitzone der Nutzer
+         */
+        void due(String guildId, LocalDate localDay, List<String> userIds);
+    }
+
+    private record Due(long at, String guildId, String userId, LocalDate localDay, long version) {
+    }
+
+    private static final PriorityQueue<Due> heap = new PriorityQueue<>(Comparator.comparingLong(Due::at));
+    private static final Map<String, Long> versions = new HashMap<>();
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "birthday-scheduler");
+        t.setDaemon(true);
+        return t;
+    });
+    private static ScheduledFuture<?> wakeup;
+    private static long wakeupAt = Long.MAX_VALUE;
+    private static Handler handler;
+
+    /**
+     * Baut den Heap aus allen gespeicherten Geburtstagen auf und stellt den Timer. Darf erneut aufgerufen werden
+     * (z.B. nach einem Reconnect).
+     */
+    public static void start(Handler h) {
+        Map<String, Map<String, BirthdayService.BirthdayEntry>> all = BirthdayService.snapshot();
+        Instant now = Instant.now();
+        synchronized (BirthdayScheduler.class) {
+            handler = h;
+            heap.clear();
+            versions.clear();
+            all.forEach((guildId, users) -> users.forEach((userId, b) -> push(guildId, userId, b, now, false)));
+            arm();
+            logger.info("Geburtstags-Scheduler gestartet ({} Einträge, nächster: {})", heap.size(),
+                    heap.isEmpty() ? "-" : Instant.ofEpochMilli(heap.peek().at()));
+        }
+    }
+
+    /**
+     * Neu einplanen nach Änderung; {@code entry == null} wenn der Geburtstag entfernt wurde.
+     */
+    public static synchronized void refresh(String guildId, String userId, BirthdayService.BirthdayEntry entry) {
+        if (handler == null) return; // noch nicht gestartet, start() liest alles neu
+        if (entry == null) {
+            versions.merge(key(guildId, userId), 1L, Long::sum);
+            return;
+        }
+        push(guildId, userId, entry, Instant.now(), false);
+        arm();
+    }
+
+    public static ZoneId zoneOf(BirthdayService.BirthdayEntry b) {
+        if (b.timezone != null && !b.timezone.isEmpty()) {
+            try {
+                return ZoneId.of(b.timezone);
+            } catch (DateTimeException ignored) {
+            }
+        }
+        return defaultZone();
+    }
+
+    public static ZoneId defaultZone() {
+        try {
+            return ZoneId.of(Config.getBirthdayTimezone());
+        } catch (DateTimeException e) {
+            return ZoneId.of("Europe/Berlin");
+        }
+    }
+
+    private static String key(String guildId, String userId) {
+        return guildId + ":" + userId;
+    }
+
+    // unter Lock
+    private static void push(String guildId, String userId, BirthdayService.BirthdayEntry b, Instant now, boolean afterToday) {
+        long version = versions.merge(key(guildId, userId), 1L, Long::sum);
+        ZoneId zone = zoneOf(b);
+        LocalDate today = LocalDate.ofInstant(now, zone);
+        LocalDate next = nextBirthday(b, today, afterToday);
+        if (next == null) return;
+        long at = next.equals(today) ? now.toEpochMilli() : next.atStartOfDay(zone).toInstant().toEpochMilli();
+        heap.add(new Due(at, guildId, userId, next, version));
+    }
+
+    // nächster Geburtstag ab heute; heute nur, wenn noch nicht gratuliert
+    static LocalDate nextBirthday(BirthdayService.BirthdayEntry b, LocalDate today, boolean afterToday) {
+        for (int year = today.getYear(); year <= today.getYear() + 8; year++) {
+            LocalDate d;
+            try {
+                d = LocalDate.of(year, b.month, b.day);
+            } catch (DateTimeException e) {
+                continue; // 29.02 außerhalb von Schaltjahren
+            }
+            if (d.isBefore(today)) continue;
+            if (d.equals(today) && (afterToday || today.toString().equals(b.lastCongratsDate))) continue;
+            return d;
+        }
+        return null;
+    }
+
+    // unter Lock
+    private static void arm() {
+        Due head = heap.peek();
+        if (head == null) return;
+        if (wakeup != null && !wakeup.isDone() && wakeupAt <= head.at()) return;
+        if (wakeup != null) wakeup.cancel(false);
+        wakeupAt = head.at();
+        long delay = Math.max(0, head.at() - System.currentTimeMillis());
+        wakeup = timer.schedule(BirthdayScheduler::fire, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static void fire() {
+        List<Due> fired = new ArrayList<>();
+        Handler h;
+        synchronized (BirthdayScheduler.class) {
+            h = handler;
+            wakeup = null;
+            wakeupAt = Long.MAX_VALUE;
+            long now = System.currentTimeMillis();
+            while (!heap.isEmpty() && heap.peek().at() <= now) {
+                Due due = heap.poll();
+                // veraltet durch refresh()
+                if (Objects.equals(versions.get(key(due.guildId(), due.userId())), due.version())) fired.add(due);
+            }
+            arm();
+        }
+        if (fired.isEmpty()) return;
+
+        // außerhalb des Locks, der Handler liest und schreibt den BirthdayService
+        Map<String, Map<LocalDate, List<String>>> batches = new LinkedHashMap<>();
+        for (Due due : fired) {
+            batches.computeIfAbsent(due.guildId(), k -> new TreeMap<>())
+                    .computeIfAbsent(due.localDay(), k -> new ArrayList<>()).add(due.userId());
+        }
+        batches.forEach((guildId, byDay) -> byDay.forEach((day, userIds) -> {
+            try {
+                h.due(guildId, day, userIds);
+            } catch (Exception e) {
+                logger.error("Fehler beim Gratulieren in Guild {}", guildId, e);
+            }
+        }));
+
+        // nächstes Jahr einplanen - heute gilt als erledigt, auch wenn das Senden scheiterte
+        Map<Due, BirthdayService.BirthdayEntry> current = new LinkedHashMap<>();
+        for (Due due : fired) {
+            BirthdayService.getBirthday(due.guildId(), due.userId()).ifPresent(b -> current.put(due, b));
+        }
+        Instant now = Instant.now();
+        synchronized (BirthdayScheduler.class) {
+            current.forEach((due, b) -> push(due.guildId(), due.userId(), b, now, true));
+            arm();
+        }
+    }
+}
@@ -2,10 +2,7 @@ package dev.eministar.modules.birthday;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
-import dev.eministar.util.EmojiUtil;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -15,6 +12,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -22,136 +20,316 @@ import java.util.*;
  * {
  *   "<guildId>": {
  *     "listMessageId": "<messageId>",
+ *     "listMessageIds": ["<page 1>", "<page 2>", ...],
  *     "birthdays": {
- *        "<userId>": { "day": 1, "month": 1, "year": 1990, "lastCongratsId": "..." }
+ *        "<userId>": { "day": 1, "month": 1, "year": 1990, "lastCongratsId": "...", "lastCongratsDate": "yyyy-MM-dd",
+ *                      "timezone": "Europe/Berlin" }
+ *     },
+ *     "roleGrants": {
+ *        "<userId>": { "roleId": "...", "grantedAt": 0, "expiresAt": 0 }
  *     }
  *   }
  * }
+ * The file is read into typed records once; each guild additionally keeps a day-of-year index
+ * (366 slots, 29.02 included) so the daily job only touches the users who actually have birthday today.
+ * Birthday roles handed out by the bot are recorded in {@code roleGrants} until {@link BirthdayRoleJob} has
+ * revoked them again.
  */
 public class BirthdayService {
     private static final Path DATA_PATH = Paths.get("data/birthdays.json");
-    private static JsonObject root;
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Type DATA_TYPE = new TypeToken<Map<String, GuildBirthdays>>() {}.getType();
+
+    // Tage vor Monatsbeginn in einem Schaltjahr
+    private static final int[] DAYS_BEFORE_MONTH = {0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335};
+
+    private static Map<String, GuildBirthdays> guilds = new HashMap<>();
 
     static {
         load();
     }
 
-    private static void load() {
+    public static class BirthdayRecord {
+        public int day;
+        public int month;
+        public Integer year;
+        public String lastCongratsId = "";
+        public String lastCongratsDate = "";
+        public String timezone; // null = Config-Standard
+    }
+
+    public static class RoleGrant {
+        public String roleId;
+        public long grantedAt;
+        public long expiresAt; // Mitternacht nach dem Geburtstag in der Zeitzone des Nutzers
+    }
+
+    public static class GuildBirthdays {
+        public String listMessageId = ""; // = erste Seite, für ältere Dateien
+        public List<String> listMessageIds = new ArrayList<>();
+        public Map<String, BirthdayRecord> birthdays = new HashMap<>();
+        public Map<String, RoleGrant> roleGrants = new HashMap<>();
+        // Rollen aus der Zeit vor roleGrants wurden einmalig eingesammelt
+        public boolean legacyRolesSwept;
+
+        // dayOfYear -> userIds, nicht gespeichert
+        private transient List<Set<String>> byDay;
+
+        private Set<String> slot(int month, int day) {
+            if (byDay == null) rebuildIndex();
+            return byDay.get(dayOfYear(month, day));
+        }
+
+        private void rebuildIndex() {
+            if (birthdays == null) birthdays = new HashMap<>();
+            if (listMessageId == null) listMessageId = "";
+            if (roleGrants == null) roleGrants = new HashMap<>();
+            if (listMessageIds == null) listMessageIds = new ArrayList<>();
+            if (listMessageIds.isEmpty() && !listMessageId.isEmpty()) listMessageIds.add(listMessageId);
+            byDay = new ArrayList<>(366);
+            for (int i = 0; i < 366; i++) byDay.add(new HashSet<>(2));
+            birthdays.forEach((userId, b) -> byDay.get(dayOfYear(b.month, b.day)).add(userId));
+        }
+    }
+
+    /**
+     * 0..365, berechnet wie in einem Schaltjahr, damit der 29.02 einen eigenen Platz hat.
+     */
+    static int dayOfYear(int month, int day) {
+        int m = Math.max(1, Math.min(12, month));
+        return Math.max(0, Math.min(365, DAYS_BEFORE_MONTH[m - 1] + day - 1));
+    }
+
+    private static synchronized void load() {
         try {
             if (!Files.exists(DATA_PATH)) {
                 Files.createDirectories(DATA_PATH.getParent());
-                root = new JsonObject();
+                guilds = new HashMap<>();
                 save();
                 return;
             }
 
             try (Reader r = Files.newBufferedReader(DATA_PATH, StandardCharsets.UTF_8)) {
-                root = GSON.fromJson(r, JsonObject.class);
-                if (root == null) root = new JsonObject();
+                Map<String, GuildBirthdays> loaded = GSON.fromJson(r, DATA_TYPE);
+                guilds = loaded != null ? new HashMap<>(loaded) : new HashMap<>();
             }
+            guilds.values().forEach(GuildBirthdays::rebuildIndex);
         } catch (IOException e) {
             throw new RuntimeException("Failed to load birthdays.json", e);
         }
     }
 
-    private static void save() {
-        try (Writer w = Files.newBufferedWriter(DATA_PATH, StandardCharsets.UTF_8)) {
-            GSON.toJson(root, w);
+    private static synchronized void save() {
+        try {
+            Path tmp = DATA_PATH.resolveSibling(DATA_PATH.getFileName() + ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                GSON.toJson(guilds, DATA_TYPE, w);
+            }
+            Files.move(tmp, DATA_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             throw new RuntimeException("Failed to save birthdays.json", e);
         }
     }
 
-    private static JsonObject ensureGuild(String guildId) {
-        if (!root.has(guildId) || root.get(guildId).isJsonNull()) {
-            JsonObject node = new JsonObject();
-            node.add("birthdays", new JsonObject());
-            node.addProperty("listMessageId", "");
-            root.add(guildId, node);
+    private static GuildBirthdays ensureGuild(String guildId) {
+        GuildBirthdays guild = guilds.get(guildId);
+        if (guild == null) {
+            guild = new GuildBirthdays();
+            guild.rebuildIndex();
+            guilds.put(guildId, guild);
             save();
         }
-        return root.getAsJsonObject(guildId);
+        return guild;
+    }
+
+    public static synchronized void setListMessageId(String guildId, String messageId) {
+        setListMessageIds(guildId, messageId == null || messageId.isEmpty() ? List.of() : List.of(messageId));
+    }
+
+    public static synchronized String getListMessageId(String guildId) {
+        return ensureGuild(guildId).listMessageId;
     }
 
-    public static void setListMessageId(String guildId, String messageId) {
-        JsonObject guild = ensureGuild(guildId);
-        guild.addProperty("listMessageId", messageId == null ? "" : messageId);
+    /**
+     * Nachrichten der Geburtstagsliste, eine pro Seite.
+     */
+    public static synchronized void setListMessageIds(String guildId, List<String> messageIds) {
+        GuildBirthdays guild = ensureGuild(guildId);
+        guild.listMessageIds = new ArrayList<>(messageIds);
+        guild.listMessageId = messageIds.isEmpty() ? "" : messageIds.get(0);
         save();
     }
 
-    public static String getListMessageId(String guildId) {
-        JsonObject guild = ensureGuild(guildId);
-        return guild.has("listMessageId") ? guild.get("listMessageId").getAsString() : "";
+    public static synchronized List<String> getListMessageIds(String guildId) {
+        return new ArrayList<>(ensureGuild(guildId).listMessageIds);
+    }
+
+    public static synchronized void setBirthday(String guildId, String userId, int day, int month, Integer year) {
+        GuildBirthdays guild = ensureGuild(guildId);
+        BirthdayRecord old = guild.birthdays.get(userId);
+        if (old != null) guild.slot(old.month, old.day).remove(userId);
+        BirthdayRecord b = new BirthdayRecord();
+        b.day = day;
+        b.month = month;
+        b.year = year;
+        if (old != null) {
+            // sonst würde nach einer Korrektur am selben Tag erneut gratuliert
+            b.lastCongratsId = old.lastCongratsId;
+            b.lastCongratsDate = old.lastCongratsDate;
+            b.timezone = old.timezone;
+        }
+        guild.birthdays.put(userId, b);
+        guild.slot(month, day).add(userId);
+        save();
+        if (old != null) BirthdayListRenderer.invalidate(guildId, old.month);
+        BirthdayListRenderer.invalidate(guildId, month);
+        BirthdayScheduler.refresh(guildId, userId, BirthdayEntry.of(b));
     }
 
-    public static void setBirthday(String guildId, String userId, int day, int month, Integer year) {
-        JsonObject guild = ensureGuild(guildId);
-        JsonObject birthdays = guild.getAsJsonObject("birthdays");
-        JsonObject b = new JsonObject();
-        b.addProperty("day", day);
-        b.addProperty("month", month);
-        if (year != null) b.addProperty("year", year);
-        b.addProperty("lastCongratsId", "");
-        birthdays.add(userId, b);
+    /**
+     * @return false wenn für den Nutzer kein Geburtstag gespeichert ist
+     */
+    public static synchronized boolean setTimezone(String guildId, String userId, String zoneId) {
+        BirthdayRecord b = ensureGuild(guildId).birthdays.get(userId);
+        if (b == null) return false;
+        b.timezone = zoneId;
         save();
+        BirthdayScheduler.refresh(guildId, userId, BirthdayEntry.of(b));
+        return true;
+    }
+
+    public static synchronized Optional<BirthdayEntry> getBirthday(String guildId, String userId) {
+        BirthdayRecord b = ensureGuild(guildId).birthdays.get(userId);
+        return b == null ? Optional.empty() : Optional.of(BirthdayEntry.of(b));
+    }
+
+    public static synchronized Map<String, BirthdayEntry> getAllBirthdays(String guildId) {
+        GuildBirthdays guild = ensureGuild(guildId);
+        Map<String, BirthdayEntry> map = new HashMap<>(guild.birthdays.size() * 2);
+        guild.birthdays.forEach((userId, b) -> map.put(userId, BirthdayEntry.of(b)));
+        return map;
+    }
+
+    /**
+     * Kopie aller Geburtstage aller Guilds (für den Aufbau des Schedulers).
+     */
+    public static synchronized Map<String, Map<String, BirthdayEntry>> snapshot() {
+        Map<String, Map<String, BirthdayEntry>> out = new HashMap<>(guilds.size() * 2);
+        guilds.forEach((guildId, guild) -> {
+            Map<String, BirthdayEntry> users = new HashMap<>(guild.birthdays.size() * 2);
+            guild.birthdays.forEach((userId, b) -> users.put(userId, BirthdayEntry.of(b)));
+            out.put(guildId, users);
+        });
+        return out;
     }
 
-    public static Optional<BirthdayEntry> getBirthday(String guildId, String userId) {
-        JsonObject guild = ensureGuild(guildId);
-        JsonObject birthdays = guild.getAsJsonObject("birthdays");
-        if (!birthdays.has(userId)) return Optional.empty();
-        JsonObject b = birthdays.getAsJsonObject(userId);
-        Integer year = b.has("year") ? b.get("year").getAsInt() : null;
-        int day = b.get("day").getAsInt();
-        int month = b.get("month").getAsInt();
-        String last = b.has("lastCongratsId") ? b.get("lastCongratsId").getAsString() : "";
-        String lastDate = b.has("lastCongratsDate") ? b.get("lastCongratsDate").getAsString() : "";
-        return Optional.of(new BirthdayEntry(day, month, year, last, lastDate));
-    }
-
-    public static Map<String, BirthdayEntry> getAllBirthdays(String guildId) {
-        JsonObject guild = ensureGuild(guildId);
-        JsonObject birthdays = guild.getAsJsonObject("birthdays");
-        Map<String, BirthdayEntry> map = new HashMap<>();
-        for (Map.Entry<String, JsonElement> e : birthdays.entrySet()) {
-            String userId = e.getKey();
-            JsonObject b = e.getValue().getAsJsonObject();
-            Integer year = b.has("year") ? b.get("year").getAsInt() : null;
-            int day = b.get("day").getAsInt();
-            int month = b.get("month").getAsInt();
-            String last = b.has("lastCongratsId") ? b.get("lastCongratsId").getAsString() : "";
-            String lastDate = b.has("lastCongratsDate") ? b.get("lastCongratsDate").getAsString() : "";
-            map.put(userId, new BirthdayEntry(day, month, year, last, lastDate));
+    /**
+     * Alle Geburtstage an genau diesem Tag über den Tagesindex - O(Anzahl Geburtstagskinder).
+     */
+    public static synchronized Map<String, BirthdayEntry> getBirthdaysOn(String guildId, int month, int day) {
+        GuildBirthdays guild = guilds.get(guildId);
+        if (guild == null) return Collections.emptyMap();
+        Set<String> userIds = guild.slot(month, day);
+        if (userIds.isEmpty()) return Collections.emptyMap();
+        Map<String, BirthdayEntry> map = new HashMap<>(userIds.size() * 2);
+        for (String userId : userIds) {
+            map.put(userId, BirthdayEntry.of(guild.birthdays.get(userId)));
         }
         return map;
     }
 
-    public static void setLastCongratsId(String guildId, String userId, String messageId) {
-        JsonObject guild = ensureGuild(guildId);
-        JsonObject birthdays = guild.getAsJsonObject("birthdays");
-        if (!birthdays.has(userId)) return;
-        JsonObject b = birthdays.getAsJsonObject(userId);
-        b.addProperty("lastCongratsId", messageId == null ? "" : messageId);
+    /**
+     * Geburtstage eines Monats nach Tag sortiert, direkt aus dem Tagesindex.
+     */
+    public static synchronized LinkedHashMap<String, BirthdayEntry> getBirthdaysInMonth(String guildId, int month) {
+        LinkedHashMap<String, BirthdayEntry> map = new LinkedHashMap<>();
+        GuildBirthdays guild = guilds.get(guildId);
+        if (guild == null || month < 1 || month > 12) return map;
+        if (guild.byDay == null) guild.rebuildIndex();
+        int from = DAYS_BEFORE_MONTH[month - 1];
+        int to = month == 12 ? 366 : DAYS_BEFORE_MONTH[month];
+        for (int d = from; d < to; d++) {
+            for (String userId : guild.byDay.get(d)) {
+                map.put(userId, BirthdayEntry.of(guild.birthdays.get(userId)));
+            }
+        }
+        return map;
+    }
+
+    public static synchronized void setLastCongratsId(String guildId, String userId, String messageId) {
+        BirthdayRecord b = ensureGuild(guildId).birthdays.get(userId);
+        if (b == null) return;
+        b.lastCongratsId = messageId == null ? "" : messageId;
         save();
     }
 
     // New: store last congrats date (ISO yyyy-MM-dd) together with message id
-    public static void setLastCongrats(String guildId, String userId, String messageId, String isoDate) {
-        JsonObject guild = ensureGuild(guildId);
-        JsonObject birthdays = guild.getAsJsonObject("birthdays");
-        if (!birthdays.has(userId)) return;
-        JsonObject b = birthdays.getAsJsonObject(userId);
-        b.addProperty("lastCongratsId", messageId == null ? "" : messageId);
-        b.addProperty("lastCongratsDate", isoDate == null ? "" : isoDate);
+    public static synchronized void setLastCongrats(String guildId, String userId, String messageId, String isoDate) {
+        BirthdayRecord b = ensureGuild(guildId).birthdays.get(userId);
+        if (b == null) return;
+        b.lastCongratsId = messageId == null ? "" : messageId;
+        b.lastCongratsDate = isoDate == null ? "" : isoDate;
         save();
     }
 
-    public static void removeBirthday(String guildId, String userId) {
-        JsonObject guild = ensureGuild(guildId);
-        JsonObject birthdays = guild.getAsJsonObject("birthdays");
-        if (birthdays.has(userId)) {
-            birthdays.remove(userId);
+    public static synchronized void removeBirthday(String guildId, String userId) {
+        GuildBirthdays guild = ensureGuild(guildId);
+        BirthdayRecord old = guild.birthdays.remove(userId);
+        if (old != null) {
+            guild.slot(old.month, old.day).remove(userId);
+            save();
+            BirthdayListRenderer.invalidate(guildId, old.month);
+            BirthdayScheduler.refresh(guildId, userId, null);
+        }
+    }
+
+    public record ExpiredGrant(String guildId, String userId, String roleId, long expiresAt) {
+    }
+
+    public static synchronized void recordRoleGrant(String guildId, String userId, String roleId, long expiresAt) {
+        RoleGrant grant = new RoleGrant();
+        grant.roleId = roleId;
+        grant.grantedAt = System.currentTimeMillis();
+        grant.expiresAt = expiresAt;
+        ensureGuild(guildId).roleGrants.put(userId, grant);
+        save();
+    }
+
+    /**
+     * Alle vergebenen Rollen, deren Geburtstag vorbei ist - nur die Einträge der letzten Geburtstagskinder.
+     */
+    public static synchronized List<ExpiredGrant> expiredRoleGrants(long now) {
+        List<ExpiredGrant> out = new ArrayList<>();
+        guilds.forEach((guildId, guild) -> guild.roleGrants.forEach((userId, g) -> {
+            if (g.expiresAt <= now) out.add(new ExpiredGrant(guildId, userId, g.roleId, g.expiresAt));
+        }));
+        return out;
+    }
+
+    public static synchronized boolean hasRoleGrant(String guildId, String userId) {
+        GuildBirthdays guild = guilds.get(guildId);
+        return guild != null && guild.roleGrants.containsKey(userId);
+    }
+
+    public static synchronized boolean isLegacyRolesSwept(String guildId) {
+        GuildBirthdays guild = guilds.get(guildId);
+        return guild != null && guild.legacyRolesSwept;
+    }
+
+    public static synchronized void setLegacyRolesSwept(String guildId) {
+        ensureGuild(guildId).legacyRolesSwept = true;
+        save();
+    }
+
+    /**
+     * Entfernt den Eintrag nach erfolgreichem Entzug - nicht, wenn inzwischen neu vergeben wurde.
+     */
+    public static synchronized void removeRoleGrant(ExpiredGrant expired) {
+        GuildBirthdays guild = guilds.get(expired.guildId());
+        if (guild == null) return;
+        RoleGrant g = guild.roleGrants.get(expired.userId());
+        if (g != null && g.expiresAt == expired.expiresAt()) {
+            guild.roleGrants.remove(expired.userId());
             save();
         }
     }
@@ -162,21 +340,28 @@ public class BirthdayService {
         public final Integer year;
         public final String lastCongratsId;
         public final String lastCongratsDate;
+        public final String timezone;
 
         public BirthdayEntry(int day, int month, Integer year, String lastCongratsId) {
-            this.day = day;
-            this.month = month;
-            this.year = year;
-            this.lastCongratsId = lastCongratsId;
-            this.lastCongratsDate = "";
+            this(day, month, year, lastCongratsId, "", null);
         }
 
         public BirthdayEntry(int day, int month, Integer year, String lastCongratsId, String lastCongratsDate) {
+            this(day, month, year, lastCongratsId, lastCongratsDate, null);
+        }
+
+        public BirthdayEntry(int day, int month, Integer year, String lastCongratsId, String lastCongratsDate, String timezone) {
             this.day = day;
             this.month = month;
             this.year = year;
             this.lastCongratsId = lastCongratsId;
             this.lastCongratsDate = lastCongratsDate == null ? "" : lastCongratsDate;
+            this.timezone = timezone;
+        }
+
+        static BirthdayEntry of(BirthdayRecord b) {
+            return new BirthdayEntry(b.day, b.month, b.year, b.lastCongratsId == null ? "" : b.lastCongratsId,
+                    b.lastCongratsDate, b.timezone);
         }
 
         public String pretty() {
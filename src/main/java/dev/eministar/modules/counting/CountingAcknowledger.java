@@ -0,0 +1,125 @@
+package dev.eministar.modules.counting;
+
+import dev.eministar.util.EmojiUtil;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Acknowledges correct counts in one channel without falling behind the reaction rate limit.
+ * <p>
+ * Every reaction still waiting in JDA's queue counts against the channel's budget. While the budget lasts every count
+ * gets a ✅; once it is used up only milestones get a reaction and a single status message ("gezählt bis X") is edited
+ * instead, with edits coalesced to at most one in flight. The status message is only removed after
+ * {@link #QUIET_MILLIS} without an overflow, so a rate hovering around the budget does not send/delete it over and
+ * over. Failures cancel all pending acknowledgements of the channel,
+ * since those counts are obsolete anyway and the failure reply should not wait behind them.
+ * Called from the channel's mailbox; the request callbacks may run on any thread.
+ */
+public class CountingAcknowledger {
+    // reactions that may be queued at JDA before we switch to sparse mode
+    private static final int REACTION_BUDGET = 3;
+    // so lange ohne Überlauf, bevor die Status-Nachricht wieder gelöscht wird
+    private static final long QUIET_MILLIS = 15_000;
+
+    private final Deque<CompletableFuture<Void>> pendingReactions = new ConcurrentLinkedDeque<>();
+
+    // Status-Nachricht für den Sparmodus
+    private volatile long statusMessageId = 0L;
+    private volatile String latestStatus = null;
+    private volatile String shownStatus = null;
+    private final AtomicBoolean statusInFlight = new AtomicBoolean(false);
+    private volatile long lastOverflowAt = 0L;
+    private final AtomicBoolean quietCheckScheduled = new AtomicBoolean(false);
+
+    public void acknowledge(Message message, String formattedValue, boolean milestone) {
+        pendingReactions.removeIf(CompletableFuture::isDone);
+
+        if (milestone || pendingReactions.size() < REACTION_BUDGET) {
+            CompletableFuture<Void> future = message.addReaction(Emoji.fromUnicode("✅")).submit();
+            pendingReactions.add(future);
+            future.whenComplete((ok, err) -> pendingReactions.remove(future));
+            return;
+        }
+
+        lastOverflowAt = System.currentTimeMillis();
+        latestStatus = EmojiUtil.wrap("✅") + " Gezählt bis **" + formattedValue + "** (schnelles Zählen, Reaktionen pausiert)";
+        flushStatus(message.getChannel());
+        scheduleQuietCheck(message.getChannel(), QUIET_MILLIS);
+    }
+
+    // Sparmodus erst verlassen, wenn QUIET_MILLIS lang kein Überlauf mehr kam
+    private void scheduleQuietCheck(MessageChannel channel, long delayMillis) {
+        if (!quietCheckScheduled.compareAndSet(false, true)) return;
+        CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> {
+            quietCheckScheduled.set(false);
+            long remaining = lastOverflowAt + QUIET_MILLIS - System.currentTimeMillis();
+            if (remaining > 0) {
+                scheduleQuietCheck(channel, remaining);
+            } else {
+                clearStatus(channel);
+            }
+        });
+    }
+
+    /**
+     * Drops all not yet sent acknowledgements, so the failure reply goes out right away.
+     */
+    public void failure(MessageChannel channel) {
+        CompletableFuture<Void> future;
+        while ((future = pendingReactions.poll()) != null) {
+            future.cancel(false);
+        }
+        clearStatus(channel);
+    }
+
+    private void flushStatus(MessageChannel channel) {
+        if (!statusInFlight.compareAndSet(false, true)) return; // läuft schon, nimmt den neuesten Stand danach mit
+        String text = latestStatus;
+        if (text == null || text.equals(shownStatus)) {
+            statusInFlight.set(false);
+            return;
+        }
+
+        CompletableFuture<?> request;
+        if (statusMessageId == 0L) {
+            request = channel.sendMessage(text).submit().thenAccept(m -> {
+                if (latestStatus == null) {
+                    // Sparmodus wurde inzwischen verlassen
+                    m.delete().queue(null, err -> {});
+                } else {
+                    statusMessageId = m.getIdLong();
+                }
+            });
+        } else {
+            request = channel.editMessageById(statusMessageId, text).submit();
+        }
+        request.whenComplete((ok, err) -> {
+            if (err == null && statusMessageId != 0L) {
+                shownStatus = text;
+            } else {
+                statusMessageId = 0L; // z.B. gelöscht -> beim nächsten Mal neu senden
+            }
+            statusInFlight.set(false);
+            if (latestStatus != null && !latestStatus.equals(shownStatus)) {
+                flushStatus(channel);
+            }
+        });
+    }
+
+    private void clearStatus(MessageChannel channel) {
+        latestStatus = null;
+        shownStatus = null;
+        long id = statusMessageId;
+        if (id != 0L) {
+            statusMessageId = 0L;
+            channel.deleteMessageById(id).queue(null, err -> {});
+        }
+    }
+}
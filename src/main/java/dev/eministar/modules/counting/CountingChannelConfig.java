@@ -0,0 +1,117 @@
+package dev.eministar.modules.counting;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import dev.eministar.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-channel counting mode (step, number base, allowed operators, fail penalty).
+ * All counting channels are kept in a lookup table built once from the config at startup (the config itself is
+ * only read on startup, too), so listeners can bail out in O(1).
+ */
+public final class CountingChannelConfig {
+    private static final Logger logger = LoggerFactory.getLogger(CountingChannelConfig.class);
+
+    public static final CountingChannelConfig DEFAULT = new CountingChannelConfig("", 1, 10, CountingExpression.ALL_OPERATORS, 0);
+
+    // channelId -> config
+    private static final Map<String, CountingChannelConfig> channels = load();
+
+    private final String channelId;
+    private final int step;
+    private final int base;
+    private final String operators;
+    // 0 = zurück auf den Start, n > 0 = n Zählungen zurück
+    private final int failPenalty;
+
+    public CountingChannelConfig(String channelId, int step, int base, String operators, int failPenalty) {
+        this.channelId = channelId;
+        this.step = step;
+        this.base = base;
+        this.operators = operators;
+        this.failPenalty = failPenalty;
+    }
+
+    public String getChannelId() {
+        return channelId;
+    }
+
+    public int getStep() {
+        return step;
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    public String getOperators() {
+        return operators;
+    }
+
+    public int getFailPenalty() {
+        return failPenalty;
+    }
+
+    public String format(long value) {
+        return base == 10 ? Long.toString(value) : Long.toString(value, base).toUpperCase();
+    }
+
+    /**
+     * @return the config of a counting channel, or null if the channel is not a counting channel
+     */
+    public static CountingChannelConfig get(String channelId) {
+        return channels.get(channelId);
+    }
+
+    public static CountingChannelConfig getOrDefault(String channelId) {
+        return channels.getOrDefault(channelId, DEFAULT);
+    }
+
+    public static int size() {
+        return channels.size();
+    }
+
+    private static Map<String, CountingChannelConfig> load() {
+        Map<String, CountingChannelConfig> map = new ConcurrentHashMap<>();
+        JsonArray array = Config.getCountingChannels();
+        for (JsonElement element : array) {
+            if (!element.isJsonObject()) continue;
+            CountingChannelConfig config = fromJson(element.getAsJsonObject());
+            if (config != null) {
+                map.put(config.channelId, config);
+            }
+        }
+        // Alte Einzel-Kanal-Konfiguration weiterhin unterstützen
+        String legacy = Config.getCountingChannelId();
+        if (!legacy.isEmpty() && !map.containsKey(legacy)) {
+            map.put(legacy, new CountingChannelConfig(legacy, DEFAULT.step, DEFAULT.base, DEFAULT.operators, DEFAULT.failPenalty));
+        }
+        logger.info("Counting channels configured: {}", map.size());
+        return map;
+    }
+
+    private static CountingChannelConfig fromJson(JsonObject o) {
+        String channelId = o.has("channelId") ? o.get("channelId").getAsString() : "";
+        if (channelId.isEmpty()) return null;
+        int step = o.has("step") ? o.get("step").getAsInt() : DEFAULT.step;
+        int base = o.has("base") ? o.get("base").getAsInt() : DEFAULT.base;
+        String operators = o.has("operators") ? o.get("operators").getAsString() : DEFAULT.operators;
+        int failPenalty = o.has("failPenalty") ? o.get("failPenalty").getAsInt() : DEFAULT.failPenalty;
+
+        if (step < 1) {
+            logger.warn("Counting channel {}: invalid step {}, using 1", channelId, step);
+            step = 1;
+        }
+        if (base < Character.MIN_RADIX || base > Character.MAX_RADIX) {
+            logger.warn("Counting channel {}: invalid base {}, using 10", channelId, base);
+            base = 10;
+        }
+        return new CountingChannelConfig(channelId, step, base, operators, Math.max(0, failPenalty));
+    }
+}
@@ -13,6 +13,7 @@ import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
 
 import java.awt.Color;
 import java.time.Instant;
+import java.util.List;
 
 public class CountingCommand implements Command {
 
@@ -36,6 +37,7 @@ public class CountingCommand implements Command {
         return Commands.slash(name(), description())
                 .addSubcommands(
                         new SubcommandData("stats", "Zeigt die Statistiken des Zähl-Spiels"),
+                        new SubcommandData("leaderboard", "Zeigt die fleißigsten Zähler dieses Kanals"),
                         new SubcommandData("reset", "Setzt das Zähl-Spiel zurück (nur Admins)")
                 );
     }
@@ -47,6 +49,7 @@ public class CountingCommand implements Command {
 
         String channelId = event.getChannel().getId();
         CountingGame.GameState game = CountingGame.getOrCreateGame(channelId);
+        CountingChannelConfig config = CountingChannelConfig.getOrDefault(channelId);
 
         switch (subcommand) {
             case "stats" -> {
@@ -54,8 +57,8 @@ public class CountingCommand implements Command {
                 embed.setTitle(EmojiUtil.wrap("📊") + " Zähl-Spiel Statistiken");
                 embed.setColor(new Color(0x5865F2));
 
-                embed.addField(EmojiUtil.wrap("🔢") + " Aktuell bei", String.valueOf(game.getCurrentNumber()), true);
-                embed.addField(EmojiUtil.wrap("🏆") + " Highscore", String.valueOf(game.getHighscore()), true);
+                embed.addField(EmojiUtil.wrap("🔢") + " Aktuell bei", config.format(game.getCurrentNumber()), true);
+                embed.addField(EmojiUtil.wrap("🏆") + " Highscore", config.format(game.getHighscore()), true);
                 embed.addField(EmojiUtil.wrap("📈") + " Gesamt gezählt", String.valueOf(game.getTotalCounts()), true);
                 embed.addField(EmojiUtil.wrap("💥") + " Gesamt Fails", String.valueOf(game.getTotalFails()), true);
 
@@ -64,12 +67,23 @@ public class CountingCommand implements Command {
                     embed.addField(EmojiUtil.wrap("✅") + " Erfolgsrate", String.format("%.1f%%", successRate), true);
                 }
 
+                CountingGame.UserStats own = game.getUserStats(event.getUser().getId());
+                if (own != null) {
+                    embed.addField(EmojiUtil.wrap("👤") + " Deine Zählungen", own.getCounts() + " (Fails: " + own.getFails() + ")", true);
+                }
+
+                String operators = config.getOperators().isEmpty()
+                        ? "Rechnen ist hier deaktiviert"
+                        : "Du kannst auch rechnen (`" + String.join("` `", config.getOperators().split("")) + "`, Klammern)";
                 embed.setDescription(
                     EmojiUtil.wrap("ℹ️") + " **Regeln:**\n" +
-                    "• Zähle von 1 aufwärts\n" +
+                    "• Zähle von " + config.format(config.getStep()) + " in " + config.getStep() + "er-Schritten aufwärts"
+                            + (config.getBase() != 10 ? " (Basis " + config.getBase() + ")" : "") + "\n" +
                     "• Abwechselnd zählen (nicht zweimal hintereinander)\n" +
-                    "• Du kannst auch rechnen: `5+3`, `10-2`, `4*2`, `8/2`\n" +
-                    "• Bei Fehler: Zurück auf 1!"
+                    "• " + operators + "\n" +
+                    (config.getFailPenalty() > 0
+                            ? "• Bei Fehler: " + config.getFailPenalty() + " Zählungen zurück!"
+                            : "• Bei Fehler: Zurück auf " + config.format(config.getStep()) + "!")
                 );
 
                 embed.setTimestamp(Instant.now());
@@ -78,6 +92,18 @@ public class CountingCommand implements Command {
                 event.replyEmbeds(embed.build()).setEphemeral(true).queue();
             }
 
+            case "leaderboard" -> {
+                EmbedBuilder embed = new EmbedBuilder();
+                embed.setTitle(EmojiUtil.wrap("🏆") + " Zähl-Spiel Rangliste");
+                embed.setColor(new Color(0xFFD700));
+                embed.addField(EmojiUtil.wrap("📈") + " Meiste Zählungen", formatRanking(game.topCounters(10)), false);
+                embed.addField(EmojiUtil.wrap("💥") + " Meiste Fails", formatRanking(game.topFailers(5)), false);
+                embed.setFooter(game.getUserCount() + " Teilnehmer", event.getJDA().getSelfUser().getAvatarUrl());
+                embed.setTimestamp(Instant.now());
+
+                event.replyEmbeds(embed.build()).setEphemeral(true).queue();
+            }
+
             case "reset" -> {
                 Member member = event.getMember();
                 if (member == null || !member.hasPermission(Permission.MANAGE_SERVER)) {
@@ -86,16 +112,30 @@ public class CountingCommand implements Command {
                     return;
                 }
 
-                int oldHighscore = game.getHighscore();
-                int oldNumber = game.getCurrentNumber() - 1;
+                // Über die Kanal-Queue, damit der Reset nicht mit laufenden Zählungen kollidiert
+                CountingGame.submit(channelId, () -> {
+                    int oldHighscore = game.getHighscore();
+                    int oldNumber = game.getCurrentNumber() - config.getStep();
 
-                game.reset();
-                CountingGame.updateGame(channelId, game);
+                    game.applyPenalty(config.getStep(), 0);
+                    CountingGame.updateGame(channelId, game);
 
-                event.reply(EmojiUtil.wrap("🔄") + " **Zähl-Spiel zurückgesetzt!**\n" +
-                        "Vorheriger Stand: **" + oldNumber + "**\n" +
-                        "Highscore bleibt: **" + oldHighscore + "**").queue();
+                    event.reply(EmojiUtil.wrap("🔄") + " **Zähl-Spiel zurückgesetzt!**\n" +
+                            "Vorheriger Stand: **" + config.format(oldNumber) + "**\n" +
+                            "Highscore bleibt: **" + config.format(oldHighscore) + "**").queue();
+                });
             }
         }
     }
+
+    private static String formatRanking(List<CountingLeaderboard.Entry> entries) {
+        if (entries.isEmpty()) return "Noch keine Einträge.";
+        StringBuilder sb = new StringBuilder();
+        int rank = 1;
+        for (CountingLeaderboard.Entry entry : entries) {
+            sb.append("#").append(rank++).append(" <@").append(entry.userId()).append("> — ")
+                    .append(entry.score()).append("\n");
+        }
+        return sb.toString();
+    }
 }
@@ -0,0 +1,231 @@
+package dev.eministar.modules.counting;
+
+/**
+ * Single-pass evaluator for counting messages.
+ * Parses directly over the message chars (no regex, no split, no boxing) using precedence climbing.
+ * Supports + - * / % ^, parentheses, unary minus and overflow-safe long arithmetic.
+ */
+public final class CountingExpression {
+    // Longer messages are treated as normal chat, not as a count
+    public static final int MAX_LENGTH = 64;
+
+    // Sentinel results; Long.MIN_VALUE and MIN_VALUE + 1 are never produced as a real value
+    public static final long NOT_AN_EXPRESSION = Long.MIN_VALUE;
+    public static final long INVALID = Long.MIN_VALUE + 1;
+
+    public static final String ALL_OPERATORS = "+-*/%^";
+
+    private static final int PREC_ADD = 1;
+    private static final int PREC_MUL = 2;
+    private static final int PREC_POW = 3;
+
+    private static final ThreadLocal<CountingExpression> PARSER = ThreadLocal.withInitial(CountingExpression::new);
+
+    private CharSequence in;
+    private int radix;
+    private int pos;
+    private int end;
+    // set when the syntax is fine but the arithmetic is not (division by zero, overflow, negative exponent)
+    private boolean invalid;
+    // set when the input is not an expression at all
+    private boolean syntaxError;
+
+    private CountingExpression() {
+    }
+
+    /**
+     * Evaluates the message.
+     * @return the value, {@link #NOT_AN_EXPRESSION} if the message is no number/expression (ignore it),
+     *         or {@link #INVALID} if it is an expression that cannot be computed (counts as a fail)
+     */
+    public static long evaluate(CharSequence input) {
+        return evaluate(input, ALL_OPERATORS, 10);
+    }
+
+    /**
+     * Same as {@link #evaluate(CharSequence)} but only accepts the given operator chars (e.g. "+-*")
+     * and reads numbers in the given base (2-36). Using a disallowed operator makes the message NOT_AN_EXPRESSION.
+     * Letter digits are only read in uppercase, so lowercase words stay chat even in base 36.
+     */
+    public static long evaluate(CharSequence input, String allowedOperators, int radix) {
+        if (input == null) return NOT_AN_EXPRESSION;
+        int start = 0;
+        int stop = input.length();
+        while (start < stop && isSpace(input.charAt(start))) start++;
+        while (stop > start && isSpace(input.charAt(stop - 1))) stop--;
+        if (start == stop || stop - start > MAX_LENGTH) return NOT_AN_EXPRESSION;
+
+        CountingExpression p = PARSER.get();
+        p.in = input;
+        p.radix = radix;
+        p.pos = start;
+        p.end = stop;
+        p.invalid = false;
+        p.syntaxError = false;
+        try {
+            long value = p.parseExpression(PREC_ADD, allowedOperators);
+            p.skipSpaces();
+            if (p.pos != p.end) p.syntaxError = true;
+            if (p.syntaxError) return NOT_AN_EXPRESSION;
+            if (p.invalid || value <= INVALID) return INVALID;
+            return value;
+        } finally {
+            p.in = null;
+        }
+    }
+
+    private long parseExpression(int minPrec, String ops) {
+        long lhs = parseUnary(ops);
+        while (!syntaxError) {
+            skipSpaces();
+            if (pos >= end) break;
+            char op = normalizeOperator(in.charAt(pos));
+            int prec = precedence(op);
+            if (prec < minPrec) break;
+            if (ops.indexOf(op) < 0) {
+                syntaxError = true;
+                break;
+            }
+            pos++;
+            // ^ is right-associative: 2^3^2 = 2^9
+            long rhs = parseExpression(op == '^' ? prec : prec + 1, ops);
+            lhs = apply(op, lhs, rhs);
+        }
+        return lhs;
+    }
+
+    private long parseUnary(String ops) {
+        skipSpaces();
+        if (pos >= end) {
+            syntaxError = true;
+            return 0;
+        }
+        char c = in.charAt(pos);
+        if (c == '-' || c == '+') {
+            if (ops.indexOf(c) < 0) {
+                syntaxError = true;
+                return 0;
+            }
+            pos++;
+            // unary minus binds weaker than ^ so that -2^2 = -4
+            long v = parseExpression(PREC_POW, ops);
+            if (c == '+' || invalid) return v;
+            if (v == Long.MIN_VALUE) {
+                invalid = true;
+                return 0;
+            }
+            return -v;
+        }
+        if (c == '(') {
+            pos++;
+            long v = parseExpression(PREC_ADD, ops);
+            skipSpaces();
+            if (pos >= end || in.charAt(pos) != ')') {
+                syntaxError = true;
+                return 0;
+            }
+            pos++;
+            return v;
+        }
+        return parseNumber();
+    }
+
+    private long parseNumber() {
+        int start = pos;
+        long v = 0;
+        while (pos < end) {
+            char c = in.charAt(pos);
+            // above base 10 letter digits must be uppercase (as format() prints them),
+            // otherwise every chat word like "hallo" would be a valid base-36 number
+            if (c >= 'a' && c <= 'z') break;
+            int d = Character.digit(c, radix);
+            if (d < 0) break;
+            if (!invalid) {
+                if (v > (Long.MAX_VALUE - d) / radix) {
+                    invalid = true;
+                } else {
+                    v = v * radix + d;
+                }
+            }
+            pos++;
+        }
+        if (pos == start) syntaxError = true;
+        return v;
+    }
+
+    private long apply(char op, long a, long b) {
+        if (invalid || syntaxError) return 0;
+        try {
+            switch (op) {
+                case '+': return Math.addExact(a, b);
+                case '-': return Math.subtractExact(a, b);
+                case '*': return Math.multiplyExact(a, b);
+                case '/':
+                    if (b == 0) break;
+                    return a / b;
+                case '%':
+                    if (b == 0) break;
+                    return a % b;
+                case '^': return pow(a, b);
+                default: break;
+            }
+        } catch (ArithmeticException overflow) {
+            // fall through to invalid
+        }
+        invalid = true;
+        return 0;
+    }
+
+    private static long pow(long base, long exp) {
+        if (exp < 0) throw new ArithmeticException("negative exponent");
+        if (base == 0 || base == 1) return exp == 0 ? 1 : base;
+        if (base == -1) return (exp & 1) == 0 ? 1 : -1;
+        long result = 1;
+        long b = base;
+        long e = exp;
+        while (true) {
+            if ((e & 1) != 0) result = Math.multiplyExact(result, b);
+            e >>= 1;
+            if (e == 0) return result;
+            b = Math.multiplyExact(b, b);
+        }
+    }
+
+    private static int precedence(char op) {
+        switch (op) {
+            case '+':
+            case '-':
+                return PREC_ADD;
+            case '*':
+            case '/':
+            case '%':
+                return PREC_MUL;
+            case '^':
+                return PREC_POW;
+            default:
+                return 0;
+        }
+    }
+
+    // Accept the common typographic variants of * and /. ':' is deliberately not one of them,
+    // times like "12:30" must not be evaluated as a count
+    private static char normalizeOperator(char c) {
+        switch (c) {
+            case '×':
+            case '·':
+                return '*';
+            case '÷':
+                return '/';
+            default:
+                return c;
+        }
+    }
+
+    private void skipSpaces() {
+        while (pos < end && isSpace(in.charAt(pos))) pos++;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
@@ -1,5 +1,7 @@
 package dev.eministar.modules.counting;
 
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -12,19 +14,84 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CountingGame {
     private static final Logger logger = LoggerFactory.getLogger(CountingGame.class);
     private static final Path DATA_FILE = Paths.get("data/counting.json");
+    // Append-only journal: one line "channelId<TAB>entry-json" per change, compacted into DATA_FILE periodically
+    private static final Path JOURNAL_FILE = Paths.get("data/counting.journal");
+    private static final long SNAPSHOT_INTERVAL_SECONDS = 60;
+    private static final int LEADERBOARD_SIZE = 25;
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    // Journal entries carry only the channel counters plus the one user that changed, never the whole user map
+    private static final Gson journalGson = new GsonBuilder()
+            .setExclusionStrategies(new ExclusionStrategy() {
+                @Override
+                public boolean shouldSkipField(FieldAttributes f) {
+                    return f.getDeclaringClass() == GameState.class && f.getName().equals("users");
+                }
+
+                @Override
+                public boolean shouldSkipClass(Class<?> clazz) {
+                    return false;
+                }
+            })
+            .create();
 
     // channelId -> GameState
     private static final Map<String, GameState> games = new ConcurrentHashMap<>();
 
+    // channelId -> single-writer queue; all state changes of a channel run through its mailbox
+    private static final Map<String, CountingMailbox> mailboxes = new ConcurrentHashMap<>();
+    private static final ExecutorService workers = Executors.newFixedThreadPool(2, daemon("counting-worker"));
+    private static final ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor(daemon("counting-snapshot"));
+
+    // journal lines not yet written to disk
+    private static final Queue<String> pendingJournal = new ConcurrentLinkedQueue<>();
+    private static final Object journalLock = new Object();
+    private static volatile boolean dirty = false;
+
     static {
         loadGames();
+        snapshotScheduler.scheduleAtFixedRate(CountingGame::snapshotIfDirty, SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(CountingGame::snapshotIfDirty, "counting-snapshot"));
+    }
+
+    // der Shutdown-Hook schreibt den Snapshot, die Threads dürfen die JVM nicht aufhalten
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static class UserStats {
+        private int counts;
+        private int fails;
+
+        public int getCounts() {
+            return counts;
+        }
+
+        public int getFails() {
+            return fails;
+        }
     }
 
     public static class GameState {
@@ -33,6 +100,11 @@ public class CountingGame {
         private int highscore;
         private int totalCounts;
         private int totalFails;
+        // userId -> Beiträge/Fails in diesem Kanal
+        private ConcurrentMap<String, UserStats> users = new ConcurrentHashMap<>();
+        // incrementell gepflegte Ranglisten, werden nicht gespeichert
+        private transient CountingLeaderboard countLeaderboard = new CountingLeaderboard(LEADERBOARD_SIZE);
+        private transient CountingLeaderboard failLeaderboard = new CountingLeaderboard(LEADERBOARD_SIZE);
 
         public GameState() {
             this.currentNumber = 1;
@@ -82,11 +154,57 @@ public class CountingGame {
             this.totalFails++;
         }
 
-        public void reset() {
-            if (currentNumber - 1 > highscore) {
-                highscore = currentNumber - 1;
+        public UserStats getUserStats(String userId) {
+            return users.get(userId);
+        }
+
+        public int getUserCount() {
+            return users.size();
+        }
+
+        public void recordCount(String userId) {
+            UserStats stats = users.computeIfAbsent(userId, k -> new UserStats());
+            stats.counts++;
+            countLeaderboard.update(userId, stats.counts);
+        }
+
+        public void recordFail(String userId) {
+            UserStats stats = users.computeIfAbsent(userId, k -> new UserStats());
+            stats.fails++;
+            failLeaderboard.update(userId, stats.fails);
+        }
+
+        public List<CountingLeaderboard.Entry> topCounters(int limit) {
+            return countLeaderboard.top(limit);
+        }
+
+        public List<CountingLeaderboard.Entry> topFailers(int limit) {
+            return failLeaderboard.top(limit);
+        }
+
+        // nach dem Laden (Gson setzt transiente Felder nicht)
+        private void rebuildLeaderboards() {
+            if (users == null) users = new ConcurrentHashMap<>();
+            if (countLeaderboard == null) countLeaderboard = new CountingLeaderboard(LEADERBOARD_SIZE);
+            if (failLeaderboard == null) failLeaderboard = new CountingLeaderboard(LEADERBOARD_SIZE);
+            countLeaderboard.clear();
+            failLeaderboard.clear();
+            users.forEach((userId, stats) -> {
+                countLeaderboard.update(userId, stats.counts);
+                failLeaderboard.update(userId, stats.fails);
+            });
+        }
+
+        /**
+         * Ends the current run: updates the highscore and goes back to the start (penalty 0)
+         * or the given number of counts.
+         */
+        public void applyPenalty(int step, int penalty) {
+            int lastCounted = currentNumber - step;
+            if (lastCounted > highscore) {
+                highscore = lastCounted;
             }
-            currentNumber = 1;
+            currentNumber = penalty <= 0 ? step : Math.max(step, currentNumber - penalty * step);
             lastUserId = null;
         }
     }
@@ -96,105 +214,151 @@ public class CountingGame {
             if (!Files.exists(DATA_FILE)) {
                 Files.createDirectories(DATA_FILE.getParent());
                 saveGames();
-                return;
-            }
-
-            try (Reader reader = new InputStreamReader(Files.newInputStream(DATA_FILE), StandardCharsets.UTF_8)) {
-                Type type = new TypeToken<Map<String, GameState>>(){}.getType();
-                Map<String, GameState> loaded = gson.fromJson(reader, type);
-                if (loaded != null) {
-                    games.putAll(loaded);
+            } else {
+                try (Reader reader = new InputStreamReader(Files.newInputStream(DATA_FILE), StandardCharsets.UTF_8)) {
+                    Type type = new TypeToken<Map<String, GameState>>(){}.getType();
+                    Map<String, GameState> loaded = gson.fromJson(reader, type);
+                    if (loaded != null) {
+                        games.putAll(loaded);
+                    }
                 }
             }
-            logger.info("Loaded counting games for {} channels", games.size());
+            int replayed = replayJournal();
+            games.values().forEach(GameState::rebuildLeaderboards);
+            if (replayed > 0) {
+                // Journal sofort in den Snapshot übernehmen
+                dirty = true;
+                snapshotIfDirty();
+            }
+            logger.info("Loaded counting games for {} channels ({} journal entries replayed)", games.size(), replayed);
         } catch (Exception e) {
             logger.error("Failed to load counting games", e);
         }
     }
 
+    private static int replayJournal() throws IOException {
+        if (!Files.exists(JOURNAL_FILE)) return 0;
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(JOURNAL_FILE, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) continue;
+                try {
+                    String channelId = line.substring(0, tab);
+                    JournalEntry entry = journalGson.fromJson(line.substring(tab + 1), JournalEntry.class);
+                    if (entry == null || entry.state == null) continue;
+                    GameState previous = games.get(channelId);
+                    if (previous != null) {
+                        entry.state.users = previous.users;
+                    }
+                    if (entry.userId != null && entry.user != null) {
+                        entry.state.users.put(entry.userId, entry.user);
+                    }
+                    games.put(channelId, entry.state);
+                    count++;
+                } catch (Exception e) {
+                    // unvollständige letzte Zeile nach Absturz ignorieren
+                    logger.warn("Skipping corrupt counting journal line");
+                }
+            }
+        }
+        return count;
+    }
+
     private static void saveGames() {
         try {
             Files.createDirectories(DATA_FILE.getParent());
-            try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(DATA_FILE), StandardCharsets.UTF_8))) {
+            Path tmp = DATA_FILE.resolveSibling(DATA_FILE.getFileName() + ".tmp");
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8))) {
                 gson.toJson(games, writer);
             }
+            Files.move(tmp, DATA_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (Exception e) {
             logger.error("Failed to save counting games", e);
         }
     }
 
-    public static GameState getOrCreateGame(String channelId) {
-        return games.computeIfAbsent(channelId, k -> new GameState());
-    }
-
-    public static void updateGame(String channelId, GameState state) {
-        games.put(channelId, state);
-        saveGames();
-    }
-
-    public static boolean isValidNumber(String input) {
-        input = input.trim();
-
-        // Prüfe auf einfache Zahl
-        if (input.matches("\\d+")) {
-            return true;
-        }
-
-        // Prüfe auf mathematischen Ausdruck (z.B. 5+3, 10-2, 4*2, 8/2)
-        if (input.matches("\\d+\\s*[+\\-*/]\\s*\\d+")) {
-            return true;
+    /**
+     * Writes all pending journal lines in one append (group commit for a mailbox batch).
+     */
+    static void flushJournal() {
+        if (pendingJournal.isEmpty()) return;
+        synchronized (journalLock) {
+            if (pendingJournal.isEmpty()) return;
+            try {
+                Files.createDirectories(JOURNAL_FILE.getParent());
+                try (Writer writer = Files.newBufferedWriter(JOURNAL_FILE, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    String line;
+                    while ((line = pendingJournal.poll()) != null) {
+                        writer.write(line);
+                        writer.write('\n');
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Failed to append counting journal", e);
+            }
         }
-
-        return false;
     }
 
-    public static Integer evaluateExpression(String input) {
-        try {
-            input = input.trim().replaceAll("\\s+", "");
-
-            // Einfache Zahl
-            if (input.matches("\\d+")) {
-                return Integer.parseInt(input);
-            }
-
-            // Addition
-            if (input.contains("+")) {
-                String[] parts = input.split("\\+");
-                if (parts.length == 2) {
-                    return Integer.parseInt(parts[0]) + Integer.parseInt(parts[1]);
-                }
+    // Compacts the journal into the snapshot file
+    private static void snapshotIfDirty() {
+        if (!dirty) return;
+        synchronized (journalLock) {
+            // vor dem Serialisieren zurücksetzen: was danach gezählt wird, landet im nächsten Snapshot
+            dirty = false;
+            flushJournal();
+            saveGames();
+            try {
+                Files.deleteIfExists(JOURNAL_FILE);
+            } catch (IOException e) {
+                logger.error("Failed to truncate counting journal", e);
             }
+        }
+    }
 
-            // Subtraktion
-            if (input.contains("-") && !input.startsWith("-")) {
-                String[] parts = input.split("-");
-                if (parts.length == 2) {
-                    return Integer.parseInt(parts[0]) - Integer.parseInt(parts[1]);
-                }
-            }
+    public static GameState getOrCreateGame(String channelId) {
+        return games.computeIfAbsent(channelId, k -> {
+            GameState state = new GameState();
+            state.setCurrentNumber(CountingChannelConfig.getOrDefault(k).getStep());
+            return state;
+        });
+    }
 
-            // Multiplikation
-            if (input.contains("*")) {
-                String[] parts = input.split("\\*");
-                if (parts.length == 2) {
-                    return Integer.parseInt(parts[0]) * Integer.parseInt(parts[1]);
-                }
-            }
+    /**
+     * Runs the task on the channel's single-writer queue. Tasks of one channel are processed in order, one at a time.
+     */
+    public static void submit(String channelId, Runnable task) {
+        mailboxes.computeIfAbsent(channelId, k -> new CountingMailbox(workers, CountingGame::flushJournal)).submit(task);
+    }
 
-            // Division
-            if (input.contains("/")) {
-                String[] parts = input.split("/");
-                if (parts.length == 2) {
-                    int divisor = Integer.parseInt(parts[1]);
-                    if (divisor == 0) return null;
-                    return Integer.parseInt(parts[0]) / Integer.parseInt(parts[1]);
-                }
-            }
+    /**
+     * Records the new state. Must be called from the channel's mailbox (see {@link #submit}).
+     * The change is journaled and written together with the rest of the batch.
+     */
+    public static void updateGame(String channelId, GameState state) {
+        updateGame(channelId, state, null);
+    }
 
-            return null;
-        } catch (Exception e) {
-            return null;
+    /**
+     * Same as {@link #updateGame(String, GameState)}, additionally journaling the stats of the user that changed.
+     */
+    public static void updateGame(String channelId, GameState state, String userId) {
+        games.put(channelId, state);
+        JournalEntry entry = new JournalEntry();
+        entry.state = state;
+        if (userId != null) {
+            entry.userId = userId;
+            entry.user = state.users.get(userId);
         }
+        pendingJournal.add(channelId + '\t' + journalGson.toJson(entry));
+        dirty = true;
     }
-}
 
+    private static class JournalEntry {
+        GameState state;
+        String userId;
+        UserStats user;
+    }
+}
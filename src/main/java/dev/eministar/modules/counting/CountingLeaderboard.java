@@ -0,0 +1,63 @@
+package dev.eministar.modules.counting;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Bounded top-K ranking backed by a sorted skip list.
+ * Scores only ever grow (counts, fails), so a user that once dropped out of the top K can only come back
+ * by beating the current last place - which is why keeping just K entries is enough.
+ * Updates are O(log K) and must come from the channel's single writer; reads are safe from any thread.
+ */
+public class CountingLeaderboard {
+    public record Entry(String userId, int score) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::userId);
+
+    private final int capacity;
+    private final ConcurrentSkipListSet<Entry> top = new ConcurrentSkipListSet<>(ORDER);
+    // userId -> current entry in top (writer only)
+    private final Map<String, Entry> members = new HashMap<>();
+
+    public CountingLeaderboard(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void update(String userId, int score) {
+        Entry old = members.get(userId);
+        if (old != null) {
+            if (old.score() == score) return;
+            top.remove(old);
+        } else if (top.size() >= capacity && score <= top.last().score()) {
+            return;
+        }
+        Entry entry = new Entry(userId, score);
+        top.add(entry);
+        members.put(userId, entry);
+        if (top.size() > capacity) {
+            Entry evicted = top.pollLast();
+            if (evicted != null) members.remove(evicted.userId());
+        }
+    }
+
+    public List<Entry> top(int limit) {
+        List<Entry> out = new ArrayList<>(Math.min(limit, capacity));
+        Iterator<Entry> it = top.iterator();
+        while (out.size() < limit && it.hasNext()) {
+            out.add(it.next());
+        }
+        return out;
+    }
+
+    public void clear() {
+        top.clear();
+        members.clear();
+    }
+}
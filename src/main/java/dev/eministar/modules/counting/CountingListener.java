@@ -12,12 +12,15 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Color;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CountingListener extends ListenerAdapter {
     private static final Logger logger = LoggerFactory.getLogger(CountingListener.class);
 
     private boolean enabled;
-    private String countingChannelId;
+    // channelId -> Bestätigungen mit Rate-Limit-Budget
+    private final Map<String, CountingAcknowledger> acknowledgers = new ConcurrentHashMap<>();
 
     public CountingListener() {
         loadConfig();
@@ -25,93 +28,102 @@ public class CountingListener extends ListenerAdapter {
 
     private void loadConfig() {
         enabled = Config.getCountingEnabled();
-        countingChannelId = Config.getCountingChannelId();
-        logger.info("Counting Module - Enabled: {}, Channel: {}", enabled, countingChannelId);
+        logger.info("Counting Module - Enabled: {}, Channels: {}", enabled, CountingChannelConfig.size());
     }
 
     @Override
     public void onMessageReceived(@NotNull MessageReceivedEvent event) {
         if (!enabled || event.getAuthor().isBot()) return;
-        if (!event.getChannel().getId().equals(countingChannelId)) return;
+        CountingChannelConfig config = CountingChannelConfig.get(event.getChannel().getId());
+        if (config == null) return;
 
+        // Pro Kanal streng nacheinander verarbeiten, damit zwei gleichzeitige Zahlen nicht beide durchgehen
+        CountingGame.submit(config.getChannelId(), () -> process(event, config));
+    }
+
+    private void process(MessageReceivedEvent event, CountingChannelConfig config) {
         String content = event.getMessage().getContentRaw().trim();
         String userId = event.getAuthor().getId();
-        String channelId = event.getChannel().getId();
+        String channelId = config.getChannelId();
 
         CountingGame.GameState game = CountingGame.getOrCreateGame(channelId);
 
         // Prüfe ob der User zweimal hintereinander zählt
         if (userId.equals(game.getLastUserId())) {
-            event.getMessage().reply(EmojiUtil.wrap("❌") + " **Du darfst nicht zweimal hintereinander zählen!**\n" +
-                    EmojiUtil.wrap("🔄") + " Zurück auf **1**! Der Highscore war **" + (game.getCurrentNumber() - 1) + "**!").queue();
-
-            game.incrementTotalFails();
-            game.reset();
-            CountingGame.updateGame(channelId, game);
-
-            event.getMessage().addReaction(Emoji.fromUnicode("❌")).queue();
+            fail(event, game, config, "**Du darfst nicht zweimal hintereinander zählen!**");
             return;
         }
 
-        // Prüfe ob es eine gültige Zahl/Rechnung ist
-        if (!CountingGame.isValidNumber(content)) {
+        // Zahl/Rechnung in einem Durchlauf auswerten
+        long value = CountingExpression.evaluate(content, config.getOperators(), config.getBase());
+        if (value == CountingExpression.NOT_AN_EXPRESSION) {
             // Ignoriere Nachrichten die keine Zahlen sind (z.B. normaler Chat)
             return;
         }
 
-        // Berechne den Wert
-        Integer value = CountingGame.evaluateExpression(content);
-        if (value == null) {
-            event.getMessage().reply(EmojiUtil.wrap("❌") + " **Ungültige Rechnung!**\n" +
-                    EmojiUtil.wrap("🔄") + " Zurück auf **1**! Der Highscore war **" + (game.getCurrentNumber() - 1) + "**!").queue();
-
-            game.incrementTotalFails();
-            game.reset();
-            CountingGame.updateGame(channelId, game);
-
-            event.getMessage().addReaction(Emoji.fromUnicode("❌")).queue();
+        if (value == CountingExpression.INVALID) {
+            fail(event, game, config, "**Ungültige Rechnung!**");
             return;
         }
 
         // Prüfe ob die Zahl korrekt ist
         if (value != game.getCurrentNumber()) {
-            event.getMessage().reply(EmojiUtil.wrap("❌") + " **Falsch gezählt!** Es wäre **" + game.getCurrentNumber() + "** gewesen, aber du hast **" + value + "** geschrieben!\n" +
-                    EmojiUtil.wrap("🔄") + " Zurück auf **1**! Der Highscore war **" + (game.getCurrentNumber() - 1) + "**!").queue();
-
-            game.incrementTotalFails();
-            game.reset();
-            CountingGame.updateGame(channelId, game);
-
-            event.getMessage().addReaction(Emoji.fromUnicode("❌")).queue();
+            fail(event, game, config, "**Falsch gezählt!** Es wäre **" + config.format(game.getCurrentNumber())
+                    + "** gewesen, aber du hast **" + config.format(value) + "** geschrieben!");
             return;
         }
 
         // Korrekt gezählt!
         game.incrementTotalCounts();
-        game.setCurrentNumber(game.getCurrentNumber() + 1);
+        game.recordCount(userId);
+        game.setCurrentNumber(game.getCurrentNumber() + config.getStep());
         game.setLastUserId(userId);
-        CountingGame.updateGame(channelId, game);
+        CountingGame.updateGame(channelId, game, userId);
 
-        // Reagiere mit Haken
-        event.getMessage().addReaction(Emoji.fromUnicode("✅")).queue();
+        // Meilensteine werden in Schritten gezählt, nicht im Zahlenwert
+        int currentCount = (int) value;
+        int countIndex = currentCount / config.getStep();
+
+        // Reagiere mit Haken (unter Last nur noch bei Meilensteinen, sonst Status-Nachricht)
+        acknowledger(channelId).acknowledge(event.getMessage(), config.format(currentCount), countIndex % 10 == 0);
 
         // Bei besonderen Meilensteinen eine Nachricht senden
-        int currentCount = value;
-        if (currentCount % 100 == 0) {
-            sendMilestoneMessage(event, game, currentCount);
-        } else if (currentCount > game.getHighscore() && game.getHighscore() > 0 && currentCount % 10 == 0) {
+        if (countIndex % 100 == 0) {
+            sendMilestoneMessage(event, game, config, currentCount);
+        } else if (currentCount > game.getHighscore() && game.getHighscore() > 0 && countIndex % 10 == 0) {
             // Neuer Rekord in 10er-Schritten
-            event.getChannel().sendMessage(EmojiUtil.wrap("🎉") + " **Neuer Rekord!** Ihr seid jetzt bei **" + currentCount + "**! Weiter so!").queue();
+            event.getChannel().sendMessage(EmojiUtil.wrap("🎉") + " **Neuer Rekord!** Ihr seid jetzt bei **" + config.format(currentCount) + "**! Weiter so!").queue();
         }
 
         logger.debug("Correct count in channel {}: {} by user {}", channelId, currentCount, userId);
     }
 
-    private void sendMilestoneMessage(MessageReceivedEvent event, CountingGame.GameState game, int milestone) {
+    private void fail(MessageReceivedEvent event, CountingGame.GameState game, CountingChannelConfig config, String reason) {
+        int reached = game.getCurrentNumber() - config.getStep();
+
+        // Ausstehende Haken verwerfen, damit die Fehlermeldung sofort rausgeht
+        acknowledger(config.getChannelId()).failure(event.getChannel());
+
+        String userId = event.getAuthor().getId();
+        game.incrementTotalFails();
+        game.recordFail(userId);
+        game.applyPenalty(config.getStep(), config.getFailPenalty());
+        CountingGame.updateGame(config.getChannelId(), game, userId);
+
+        event.getMessage().reply(EmojiUtil.wrap("❌") + " " + reason + "\n" +
+                EmojiUtil.wrap("🔄") + " Zurück auf **" + config.format(game.getCurrentNumber()) + "**! Der Highscore war **" + config.format(reached) + "**!").queue();
+        event.getMessage().addReaction(Emoji.fromUnicode("❌")).queue();
+    }
+
+    private CountingAcknowledger acknowledger(String channelId) {
+        return acknowledgers.computeIfAbsent(channelId, k -> new CountingAcknowledger());
+    }
+
+    private void sendMilestoneMessage(MessageReceivedEvent event, CountingGame.GameState game, CountingChannelConfig config, int milestone) {
         EmbedBuilder embed = new EmbedBuilder();
         embed.setTitle(EmojiUtil.wrap("🎉") + " Meilenstein erreicht!");
-        embed.setDescription("**" + milestone + "** wurde erreicht!");
-        embed.addField(EmojiUtil.wrap("🏆") + " Highscore", String.valueOf(game.getHighscore()), true);
+        embed.setDescription("**" + config.format(milestone) + "** wurde erreicht!");
+        embed.addField(EmojiUtil.wrap("🏆") + " Highscore", config.format(game.getHighscore()), true);
         embed.addField(EmojiUtil.wrap("📊") + " Gesamt gezählt", String.valueOf(game.getTotalCounts()), true);
         embed.addField(EmojiUtil.wrap("💥") + " Gesamt Fails", String.valueOf(game.getTotalFails()), true);
         embed.setColor(new Color(0xFFD700));
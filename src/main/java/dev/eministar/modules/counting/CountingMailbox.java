@@ -0,0 +1,64 @@
+package dev.eministar.modules.counting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Warteschlange mit genau einem Schreiber pro Zähl-Kanal.
+ * Aufgaben laufen strikt in Eingangsreihenfolge und nie gleichzeitig, teilen sich aber den Worker-Pool mit allen anderen Kanälen.
+ * Nach jedem abgearbeiteten Stapel läuft der Callback einmal (schreibt das Journal für den ganzen Stapel weg).
+ */
+public class CountingMailbox {
+    private static final Logger logger = LoggerFactory.getLogger(CountingMailbox.class);
+    private static final int MAX_BATCH = 64;
+
+    private final Executor executor;
+    private final Runnable afterBatch;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    public CountingMailbox(Executor executor, Runnable afterBatch) {
+        this.executor = executor;
+        this.afterBatch = afterBatch;
+    }
+
+    public void submit(Runnable task) {
+        queue.add(task);
+        trySchedule();
+    }
+
+    private void trySchedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            int processed = 0;
+            // Batch begrenzen, damit ein voller Kanal die anderen nicht aushungert
+            while (processed < MAX_BATCH && (task = queue.poll()) != null) {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.error("Counting task failed", e);
+                }
+                processed++;
+            }
+            if (processed > 0) {
+                afterBatch.run();
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                trySchedule();
+            }
+        }
+    }
+}
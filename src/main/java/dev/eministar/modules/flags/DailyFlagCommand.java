@@ -2,13 +2,25 @@ package dev.eministar.modules.flags;
 
 import dev.eministar.command.Command;
 import dev.eministar.config.Config;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import dev.eministar.util.EmojiUtil;
 
+import java.awt.*;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
 public class DailyFlagCommand implements Command {
+    private static final int MAX_PREVIEW_DAYS = 14;
+    private static final DateTimeFormatter PREVIEW_DATE = DateTimeFormatter.ofPattern("EE dd.MM.", Locale.GERMAN);
+
     @Override
     public String name() { return "dailyflag"; }
 
@@ -22,6 +34,29 @@ public class DailyFlagCommand implements Command {
         if (guild == null) return;
         var channel = event.getChannel();
 
+        if (args.length > 0 && args[0].equalsIgnoreCase("vorschau")) {
+            if (!canPreview(event.getMember())) {
+                channel.sendMessage(EmojiUtil.wrap("❌") + "Du benötigst die Berechtigung 'Server verwalten'.").queue();
+                return;
+            }
+            int days = 7;
+            if (args.length > 1) {
+                try {
+                    days = Integer.parseInt(args[1]);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+            // enthält die Lösungen -> nie in den Kanal, nur per DM (Slash-Variante antwortet ephemeral)
+            var preview = previewEmbed(guild.getId(), days).build();
+            event.getAuthor().openPrivateChannel()
+                    .flatMap(dm -> dm.sendMessageEmbeds(preview))
+                    .queue(
+                            ok -> channel.sendMessage(EmojiUtil.wrap("📬") + "Vorschau per DM geschickt.").queue(),
+                            err -> channel.sendMessage(EmojiUtil.wrap("❌") + "Konnte dir keine DM schicken – nutze `/dailyflag vorschau`.").queue()
+                    );
+            return;
+        }
+
         String quizChannelId = FlagQuizService.getQuizChannelId(guild.getId());
         if (quizChannelId != null && !quizChannelId.equals(channel.getId())) {
             channel.sendMessage(EmojiUtil.wrap("❌") + "Bitte nutze den Flaggenquiz-Kanal: <#" + quizChannelId + ">").queue();
@@ -37,7 +72,31 @@ public class DailyFlagCommand implements Command {
     }
 
     @Override
-    public CommandData getSlashCommandData() { return Commands.slash(name(), description()); }
+    public CommandData getSlashCommandData() {
+        return Commands.slash(name(), description())
+                .addOptions(new OptionData(OptionType.INTEGER, "vorschau", "Moderation: Daily-Flaggen der nächsten Tage anzeigen", false)
+                        .setRequiredRange(1, MAX_PREVIEW_DAYS));
+    }
+
+    private static boolean canPreview(Member member) {
+        return member != null && member.hasPermission(Permission.MANAGE_SERVER);
+    }
+
+    private static EmbedBuilder previewEmbed(String guildId, int days) {
+        int n = Math.max(1, Math.min(MAX_PREVIEW_DAYS, days));
+        StringBuilder sb = new StringBuilder();
+        for (FlagDailyRotation.ScheduledDaily d : FlagDailyRotation.preview(guildId, n)) {
+            sb.append("`").append(PREVIEW_DATE.format(d.date())).append("` ")
+                    .append(FlagQuizService.flagEmojiFor(d.code())).append(" ")
+                    .append(FlagQuizService.countryName(d.code(), Locale.GERMAN)).append("\n");
+        }
+        EmbedBuilder eb = new EmbedBuilder();
+        eb.setColor(new Color(0x2B2D31));
+        eb.setTitle(EmojiUtil.wrap("📆") + "Daily-Flaggen (nächste " + n + " Tage)");
+        eb.setDescription(sb.toString());
+        eb.setFooter("Nur für Moderatoren • Tage in UTC", null);
+        return eb;
+    }
 
     @Override
     public void executeSlash(SlashCommandInteraction event) {
@@ -46,6 +105,16 @@ public class DailyFlagCommand implements Command {
         if (guild == null) { event.reply(EmojiUtil.wrap("❌") + "Nur in Guilds nutzbar.").setEphemeral(true).queue(); return; }
         var channel = event.getChannel();
 
+        var previewOpt = event.getOption("vorschau");
+        if (previewOpt != null) {
+            if (!canPreview(event.getMember())) {
+                event.reply(EmojiUtil.wrap("❌") + "Du benötigst die Berechtigung 'Server verwalten'.").setEphemeral(true).queue();
+                return;
+            }
+            event.replyEmbeds(previewEmbed(guild.getId(), previewOpt.getAsInt()).build()).setEphemeral(true).queue();
+            return;
+        }
+
         String quizChannelId = FlagQuizService.getQuizChannelId(guild.getId());
         if (quizChannelId != null && !quizChannelId.equals(channel.getId())) {
             event.reply(EmojiUtil.wrap("❌") + "Bitte nutze den Flaggenquiz-Kanal: <#" + quizChannelId + ">").setEphemeral(true).queue();
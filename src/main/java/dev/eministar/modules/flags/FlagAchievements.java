@@ -0,0 +1,132 @@
+package dev.eministar.modules.flags;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Achievements des Flaggenquiz.
+ * Jeder Spieler speichert freigeschaltete Achievements als Bits in einem long ({@link FlagQuizService.PlayerStats#achievementBits}).
+ * Die Regeln werden nach dem Wert, an dem sie hängen, in eine Dispatch-Tabelle übersetzt: pro {@link Stat}
+ * aufsteigende Schwellen plus kumulierte Bitmasken. Eine Auswertung ist dann eine Binärsuche und ein AND-NOT,
+ * egal wie viele Regeln es gibt; Regeln anderer Werte werden gar nicht angefasst.
+ */
+public final class FlagAchievements {
+    public enum Stat { CURRENT_STREAK, CORRECT, TOTAL_POINTS }
+
+    /**
+     * @param bit Position im Bitset - einmal vergeben nie ändern, sonst verschieben sich gespeicherte Achievements
+     * @param key alter Schlüssel aus dem früheren String-Set (für die Migration)
+     */
+    public record Achievement(int bit, String key, Stat stat, int threshold, String message) {
+    }
+
+    private record Rules(int[] thresholds, long[] reachedMasks, Achievement[] byThreshold) {
+    }
+
+    private static final List<Achievement> all = new ArrayList<>();
+    private static volatile Map<Stat, Rules> table = new EnumMap<>(Stat.class);
+
+    static {
+        register(new Achievement(0, "streak-5", Stat.CURRENT_STREAK, 5, "5-er Streak!"));
+        register(new Achievement(1, "streak-10", Stat.CURRENT_STREAK, 10, "10-er Streak!"));
+        register(new Achievement(2, "streak-25", Stat.CURRENT_STREAK, 25, "25-er Streak!"));
+        register(new Achievement(3, "streak-50", Stat.CURRENT_STREAK, 50, "50-er Streak!"));
+        register(new Achievement(4, "correct-10", Stat.CORRECT, 10, "10 Flaggen erkannt!"));
+        register(new Achievement(5, "correct-100", Stat.CORRECT, 100, "100 Flaggen erkannt!"));
+        register(new Achievement(6, "correct-500", Stat.CORRECT, 500, "500 Flaggen erkannt!"));
+        register(new Achievement(7, "points-1000", Stat.TOTAL_POINTS, 1000, "1000 Punkte gesammelt!"));
+    }
+
+    private FlagAchievements() {
+    }
+
+    /**
+     * Fügt eine Regel hinzu und baut die Dispatch-Tabelle neu.
+     */
+    public static synchronized void register(Achievement achievement) {
+        if (achievement.bit() < 0 || achievement.bit() >= Long.SIZE) {
+            throw new IllegalArgumentException("Achievement-Bit außerhalb 0..63: " + achievement.bit());
+        }
+        for (Achievement a : all) {
+            if (a.bit() == achievement.bit()) throw new IllegalArgumentException("Achievement-Bit doppelt vergeben: " + a.bit());
+        }
+        all.add(achievement);
+
+        Map<Stat, Rules> next = new EnumMap<>(Stat.class);
+        for (Stat stat : Stat.values()) {
+            List<Achievement> rules = all.stream()
+                    .filter(a -> a.stat() == stat)
+                    .sorted(Comparator.comparingInt(Achievement::threshold))
+                    .toList();
+            if (rules.isEmpty()) continue;
+            int[] thresholds = new int[rules.size()];
+            long[] masks = new long[rules.size()];
+            long mask = 0L;
+            for (int i = 0; i < rules.size(); i++) {
+                thresholds[i] = rules.get(i).threshold();
+                mask |= 1L << rules.get(i).bit();
+                masks[i] = mask;
+            }
+            next.put(stat, new Rules(thresholds, masks, rules.toArray(new Achievement[0])));
+        }
+        table = next;
+    }
+
+    /**
+     * Schaltet alle Regeln von {@code stat} frei, die {@code value} erreicht, und setzt ihre Bits in {@code ps}.
+     * Muss unter synchronized(ps) laufen.
+     * @return neu freigeschaltete Achievements (meist leer)
+     */
+    public static List<Achievement> evaluate(FlagQuizService.PlayerStats ps, Stat stat, int value) {
+        Rules rules = table.get(stat);
+        if (rules == null) return List.of();
+        int idx = reachedIndex(rules.thresholds, value);
+        if (idx < 0) return List.of();
+        long unlocked = rules.reachedMasks[idx] & ~ps.achievementBits;
+        if (unlocked == 0L) return List.of();
+        ps.achievementBits |= unlocked;
+        List<Achievement> out = new ArrayList<>(Long.bitCount(unlocked));
+        for (int i = 0; i <= idx; i++) {
+            Achievement a = rules.byThreshold[i];
+            if ((unlocked & (1L << a.bit())) != 0) out.add(a);
+        }
+        return out;
+    }
+
+    // Index der höchsten Schwelle <= value, -1 wenn keine erreicht
+    private static int reachedIndex(int[] thresholds, int value) {
+        int lo = 0;
+        int hi = thresholds.length - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (thresholds[mid] <= value) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Übersetzt das frühere String-Set in Bits (unbekannte Schlüssel werden ignoriert).
+     */
+    public static synchronized long fromKeys(Set<String> keys) {
+        long bits = 0L;
+        if (keys == null) return bits;
+        for (Achievement a : all) {
+            if (keys.contains(a.key())) bits |= 1L << a.bit();
+        }
+        return bits;
+    }
+
+    public static int count(long bits) {
+        return Long.bitCount(bits);
+    }
+}
@@ -0,0 +1,268 @@
+package dev.eministar.modules.flags;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Antwort-Index für das Flaggenquiz, einmal beim Start aufgebaut.
+ * Bildet jeden normalisierten Namen (Deutsch, Englisch, Alias, ISO-Code) auf den ISO-Code ab.
+ * Die Suche normalisiert die Eingabe in einem Durchlauf über eine Zeichentabelle in einen Thread-Puffer und
+ * sucht direkt in einer offenen Hashtabelle - ohne Regex, ohne Normalizer und ohne Allokation pro Nachricht.
+ */
+public final class FlagAnswerIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FlagAnswerIndex.class);
+
+    // Längere Eingaben können kein Ländername sein
+    private static final int MAX_INPUT = 64;
+
+    // Faltung für U+0000..U+024F (ASCII, Latin-1, Latin Extended-A/B); null = Trennzeichen
+    private static final int FOLD_LIMIT = 0x250;
+    private static final char[][] FOLD = buildFoldTable();
+    private static final char[] SEPARATOR = null;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_INPUT * 2]);
+
+    private static final List<String> CODES = List.of(Locale.getISOCountries());
+    private static final Map<String, String> NAMES_DE = new HashMap<>();
+    private static final Map<String, String> NAMES_EN = new HashMap<>();
+
+    // offene Hashtabelle: normalisierter Name -> ISO-Code
+    private static final String[] keys;
+    private static final String[] values;
+    private static final int mask;
+
+    // Trie aller Namen für die Tippfehler-Suche
+    private static final FuzzyNameMatcher fuzzy;
+
+    static {
+        for (String code : CODES) {
+            NAMES_DE.put(code, new Locale("", code).getDisplayCountry(Locale.GERMAN));
+            NAMES_EN.put(code, new Locale("", code).getDisplayCountry(Locale.ENGLISH));
+        }
+
+        // Reihenfolge = Priorität bei Kollisionen: Aliase, deutsche Namen, englische Namen, ISO-Codes
+        Map<String, String> entries = new LinkedHashMap<>();
+        buildAliasMap().forEach((alias, code) -> put(entries, alias, code));
+        for (String code : CODES) put(entries, NAMES_DE.get(code), code);
+        for (String code : CODES) put(entries, NAMES_EN.get(code), code);
+        for (String code : CODES) put(entries, code, code);
+
+        int capacity = Integer.highestOneBit(Math.max(16, entries.size() * 2)) << 1;
+        keys = new String[capacity];
+        values = new String[capacity];
+        mask = capacity - 1;
+        entries.forEach((key, code) -> {
+            int slot = key.hashCode() & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = key;
+            values[slot] = code;
+        });
+        fuzzy = new FuzzyNameMatcher(entries, MAX_INPUT);
+        logger.info("FlagQuiz: Antwort-Index mit {} Einträgen aufgebaut", entries.size());
+    }
+
+    private FlagAnswerIndex() {
+    }
+
+    private static void put(Map<String, String> entries, String name, String code) {
+        String key = normalize(name);
+        if (key.isEmpty()) return;
+        String existing = entries.putIfAbsent(key, code);
+        if (existing != null && !existing.equals(code)) {
+            logger.debug("FlagQuiz: '{}' ist bereits {} zugeordnet, ignoriere {}", key, existing, code);
+        }
+    }
+
+    /**
+     * Löst eine Eingabe (Name, Alias oder ISO-Code) in O(Länge der Eingabe) auf.
+     * @return ISO-Code (groß) oder null
+     */
+    public static String lookup(CharSequence input) {
+        if (input == null) return null;
+        char[] buf = BUFFER.get();
+        int len = normalizeInto(input, buf);
+        if (len <= 0) return null;
+
+        int h = 0;
+        for (int i = 0; i < len; i++) h = 31 * h + buf[i];
+        int slot = h & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (equals(key, buf, len)) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Wie {@link #lookup}, toleriert aber Tippfehler (Distanz abhängig von der Länge, siehe {@link FuzzyNameMatcher}).
+     * Sollte erst aufgerufen werden, wenn die exakte Suche nichts gefunden hat.
+     * @return ISO-Code des eindeutig nächsten Namens oder null
+     */
+    public static String fuzzyLookup(CharSequence input) {
+        if (input == null) return null;
+        char[] buf = BUFFER.get();
+        int len = normalizeInto(input, buf);
+        if (len <= 0) return null;
+        return fuzzy.find(buf, len);
+    }
+
+    /**
+     * Normalisiert wie {@link #lookup}: klein, ohne Akzente, nur a-z/0-9, Trennzeichen zu einem Leerzeichen zusammengefasst.
+     */
+    public static String normalize(CharSequence input) {
+        if (input == null) return "";
+        char[] buf = new char[input.length() * 2 + 1];
+        int len = normalizeInto(input, buf);
+        return len <= 0 ? "" : new String(buf, 0, len);
+    }
+
+    public static String displayName(String code, Locale locale) {
+        String up = code.toUpperCase(Locale.ROOT);
+        if (Locale.GERMAN.equals(locale)) {
+            String name = NAMES_DE.get(up);
+            if (name != null) return name;
+        } else if (Locale.ENGLISH.equals(locale)) {
+            String name = NAMES_EN.get(up);
+            if (name != null) return name;
+        }
+        return new Locale("", up).getDisplayCountry(locale);
+    }
+
+    public static List<String> codes() {
+        return CODES;
+    }
+
+    // Schreibt die normalisierte Form nach out; -1 wenn die Eingabe zu lang ist
+    private static int normalizeInto(CharSequence in, char[] out) {
+        int n = in.length();
+        int len = 0;
+        for (int i = 0; i < n; i++) {
+            char c = in.charAt(i);
+            if (c >= 0x300 && c <= 0x36F) continue; // kombinierende Akzente einfach weglassen
+            char[] folded = c < FOLD_LIMIT ? FOLD[c] : SEPARATOR;
+            if (folded == SEPARATOR) {
+                if (len > 0 && out[len - 1] != ' ') {
+                    if (len >= out.length) return -1;
+                    out[len++] = ' ';
+                }
+                continue;
+            }
+            if (len + folded.length > out.length || len + folded.length > MAX_INPUT) return -1;
+            for (char f : folded) out[len++] = f;
+        }
+        if (len > 0 && out[len - 1] == ' ') len--;
+        return len;
+    }
+
+    private static boolean equals(String key, char[] buf, int len) {
+        if (key.length() != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (key.charAt(i) != buf[i]) return false;
+        }
+        return true;
+    }
+
+    private static char[][] buildFoldTable() {
+        char[][] table = new char[FOLD_LIMIT][];
+        for (char c = 0; c < FOLD_LIMIT; c++) {
+            String special = switch (c) {
+                case 'ß' -> "ss";
+                case 'æ', 'Æ' -> "ae";
+                case 'œ', 'Œ' -> "oe";
+                case 'ø', 'Ø' -> "o";
+                case 'đ', 'Đ' -> "d";
+                case 'ł', 'Ł' -> "l";
+                case 'þ', 'Þ' -> "th";
+                case 'ı' -> "i";
+                default -> null;
+            };
+            if (special != null) {
+                table[c] = special.toCharArray();
+                continue;
+            }
+            String stripped = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD)
+                    .replaceAll("\\p{M}", "")
+                    .toLowerCase(Locale.ROOT);
+            if (stripped.length() == 1) {
+                char f = stripped.charAt(0);
+                if ((f >= 'a' && f <= 'z') || (f >= '0' && f <= '9')) {
+                    table[c] = new char[]{f};
+                }
+            }
+        }
+        return table;
+    }
+
+    private static Map<String, String> buildAliasMap() {
+        Map<String, String> m = new LinkedHashMap<>();
+        // USA / Vereinigtes Königreich / etc.
+        m.put("usa", "US");
+        m.put("u s a", "US");
+        m.put("united states", "US");
+        m.put("vereinigte staaten", "US");
+        m.put("vereinigte staaten von amerika", "US");
+        m.put("america", "US");
+        m.put("amerika", "US");
+
+        m.put("uk", "GB");
+        m.put("u k", "GB");
+        m.put("united kingdom", "GB");
+        m.put("great britain", "GB");
+        m.put("grossbritannien", "GB");
+        m.put("großbritannien", "GB");
+        m.put("england", "GB"); // toleriert oft
+
+        m.put("south korea", "KR");
+        m.put("sudkorea", "KR");
+        m.put("südkorea", "KR");
+        m.put("north korea", "KP");
+        m.put("nordkorea", "KP");
+
+        m.put("russia", "RU");
+        m.put("russland", "RU");
+
+        m.put("czechia", "CZ");
+        m.put("tschechien", "CZ");
+
+        m.put("the netherlands", "NL");
+        m.put("niederlande", "NL");
+        m.put("holland", "NL");
+
+        m.put("ivory coast", "CI");
+        m.put("cote d ivoire", "CI");
+
+        m.put("vatican", "VA");
+        m.put("vatikan", "VA");
+
+        m.put("cape verde", "CV");
+        m.put("kap verde", "CV");
+
+        m.put("u a e", "AE");
+        m.put("uae", "AE");
+        m.put("vereinigte arabische emirate", "AE");
+        m.put("united arab emirates", "AE");
+
+        m.put("dr congo", "CD");
+        m.put("demokratische republik kongo", "CD");
+        m.put("republic of the congo", "CG");
+        m.put("kongo", "CG");
+
+        m.put("laos", "LA");
+        m.put("myanmar", "MM");
+        m.put("burma", "MM");
+
+        m.put("timor leste", "TL");
+        m.put("osttimor", "TL");
+
+        return Collections.unmodifiableMap(m);
+    }
+}
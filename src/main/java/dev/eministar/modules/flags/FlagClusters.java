@@ -0,0 +1,150 @@
+package dev.eministar.modules.flags;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Vorberechnete Ähnlichkeitsgruppen für Easy-Distraktoren: ähnlich aussehende Flaggen und Flaggen derselben Region.
+ * Pro ISO-Code liegt beim Start ein Array möglicher Distraktoren bereit (Verwechsler zuerst), gezogen wird
+ * dann per Zufallsindex - kein Durchsuchen der ganzen Länderliste pro Runde.
+ */
+public final class FlagClusters {
+    // Flaggen, die man leicht verwechselt
+    private static final String[] LOOKALIKES = {
+            "ID MC PL SG",
+            "RO TD AD MD",
+            "NL LU PY HR",
+            "IE CI IT MX",
+            "NO IS FI DK SE FO",
+            "AU NZ",
+            "SN ML GN CM",
+            "VE EC CO",
+            "SV NI HN GT",
+            "AT LV LB",
+            "SK SI RS RU",
+            "JO PS SD EH KW AE",
+            "US LR MY",
+            "CU PR",
+            "BE DE",
+            "LT BO GH",
+            "HT LI",
+            "GR UY",
+            "IN NE",
+            "QA BH",
+            "KP KR",
+            "CD CG",
+    };
+
+    // grobe Regionen
+    private static final String[] REGIONS = {
+            "DK FI IS NO SE FO AX SJ GL EE LV LT",
+            "DE AT CH LI LU BE NL FR MC IE GB IM JE GG",
+            "ES PT IT SM VA MT AD GI GR CY",
+            "PL CZ SK HU SI HR BA RS ME MK AL XK RO BG MD UA BY RU",
+            "TR SY LB IL PS JO IQ IR SA KW BH QA AE OM YE",
+            "GE AM AZ KZ UZ TM KG TJ AF MN",
+            "PK IN NP BT BD LK MV",
+            "CN JP KR KP TW HK MO",
+            "TH VN LA KH MM MY SG ID PH BN TL",
+            "MA DZ TN LY EG SD SS EH",
+            "MR ML NE TD SN GM GW GN SL LR CI BF GH TG BJ NG CV",
+            "CM CF GQ GA CG CD AO ST",
+            "ET ER DJ SO KE UG RW BI TZ MZ MW ZM ZW MG MU SC KM RE YT",
+            "ZA NA BW LS SZ SH",
+            "US CA MX BM PM",
+            "GT BZ SV HN NI CR PA",
+            "CU JM HT DO PR BS BB TT GD LC VC AG KN DM AW CW SX BQ KY TC VG VI AI MS GP MQ BL MF",
+            "CO VE GY SR GF EC PE BR BO PY UY AR CL FK GS",
+            "AU NZ PG FJ SB VU NC PF WS TO KI TV NR PW FM MH CK NU TK WF AS GU MP NF PN CC CX HM UM",
+            "AQ BV TF IO",
+    };
+
+    // pool: Verwechsler zuerst, dann Region; lookalikes = Anzahl Verwechsler am Anfang
+    private record Candidates(String[] pool, int lookalikes) {
+    }
+
+    private static final Candidates NONE = new Candidates(new String[0], 0);
+    private static final List<String> ALL_CODES = List.copyOf(FlagAnswerIndex.codes());
+    private static final Map<String, Candidates> CANDIDATES = build();
+
+    private FlagClusters() {
+    }
+
+    private static Map<String, Candidates> build() {
+        Set<String> known = Set.copyOf(FlagAnswerIndex.codes());
+        Map<String, Set<String>> lookalikes = group(LOOKALIKES, known);
+        Map<String, Set<String>> regions = group(REGIONS, known);
+        Map<String, Candidates> out = new HashMap<>();
+        for (String code : known) {
+            Set<String> pool = new LinkedHashSet<>(lookalikes.getOrDefault(code, Set.of()));
+            int count = pool.size();
+            pool.addAll(regions.getOrDefault(code, Set.of()));
+            if (!pool.isEmpty()) out.put(code, new Candidates(pool.toArray(new String[0]), count));
+        }
+        return out;
+    }
+
+    private static Map<String, Set<String>> group(String[] groups, Set<String> known) {
+        Map<String, Set<String>> out = new HashMap<>();
+        for (String group : groups) {
+            String[] members = group.split(" ");
+            for (String code : members) {
+                if (!known.contains(code)) continue;
+                Set<String> set = out.computeIfAbsent(code, k -> new LinkedHashSet<>());
+                for (String other : members) {
+                    if (!other.equals(code) && known.contains(other)) set.add(other);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Zieht {@code count} verschiedene Distraktoren für {@code code}, bevorzugt aus den Ähnlichkeitsgruppen.
+     * Reicht die Gruppe nicht, wird mit {@code fallback} (z.B. der Auswahl der Guild) aufgefüllt - höchstens
+     * {@code count} Versuche, der Rest kommt per Fisher-Yates aus allen übrigen Codes. Keine offene Schleife.
+     */
+    public static List<String> distractors(String code, int count, Supplier<String> fallback) {
+        List<String> out = new ArrayList<>(count);
+        Candidates candidates = CANDIDATES.getOrDefault(code, NONE);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        // Pool enthält code nicht und keine Duplikate; der erste Distraktor möglichst ein Verwechsler
+        String[] pool = candidates.pool.clone();
+        int take = Math.min(count, pool.length);
+        for (int i = 0; i < take; i++) {
+            int bound = i == 0 && candidates.lookalikes > 0 ? candidates.lookalikes : pool.length;
+            swap(pool, i, i + rnd.nextInt(bound - i));
+            out.add(pool[i]);
+        }
+
+        for (int attempt = 0; out.size() < count && attempt < count; attempt++) {
+            String c = fallback.get();
+            if (c != null && !c.equals(code) && !out.contains(c)) out.add(c);
+        }
+
+        if (out.size() < count) {
+            String[] rest = ALL_CODES.stream()
+                    .filter(c -> !c.equals(code) && !out.contains(c))
+                    .toArray(String[]::new);
+            int missing = Math.min(count - out.size(), rest.length);
+            for (int i = 0; i < missing; i++) {
+                swap(rest, i, i + rnd.nextInt(rest.length - i));
+                out.add(rest[i]);
+            }
+        }
+        return out;
+    }
+
+    private static void swap(String[] a, int i, int j) {
+        String t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
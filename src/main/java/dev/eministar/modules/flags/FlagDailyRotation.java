@@ -0,0 +1,102 @@
+package dev.eministar.modules.flags;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tägliche Flagge pro Guild.
+ * Tage werden als UTC-Epoch-Day (Tage seit 1970-01-01) gezählt, damit Prüfungen wie "schon gespielt?" ohne
+ * Datumsobjekte oder Strings auskommen. Der Code des Tages wird pro Guild einmal berechnet und gecacht;
+ * um Mitternacht (UTC) werden die Codes aller bekannten Guilds für den neuen Tag vorberechnet.
+ * Die Zuordnung Tag -> Flagge ist deterministisch, daher lässt sich auch eine Vorschau erzeugen.
+ */
+public final class FlagDailyRotation {
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    private record Daily(long epochDay, String code) {
+    }
+
+    private static final Map<String, Daily> today = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "flagquiz-daily");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        scheduleNextRotation();
+    }
+
+    private FlagDailyRotation() {
+    }
+
+    /**
+     * Heutiger Tag (UTC) als Epoch-Day, ohne Allokation.
+     */
+    public static int currentEpochDay() {
+        return (int) Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_DAY);
+    }
+
+    public static String codeForToday(String guildId) {
+        long day = currentEpochDay();
+        Daily cached = today.get(guildId);
+        if (cached != null && cached.epochDay == day) return cached.code;
+        Daily fresh = new Daily(day, codeFor(guildId, day));
+        today.put(guildId, fresh);
+        return fresh.code;
+    }
+
+    /**
+     * Deterministische Flagge für einen Tag. Gleiche Formel wie bisher (Hash aus Guild und ISO-Datum),
+     * damit die Flagge am Umstellungstag gleich bleibt.
+     */
+    public static String codeFor(String guildId, long epochDay) {
+        List<String> codes = FlagAnswerIndex.codes();
+        int base = Math.abs(Objects.hash(guildId, LocalDate.ofEpochDay(epochDay).toString()));
+        return codes.get(base % codes.size());
+    }
+
+    public record ScheduledDaily(LocalDate date, String code) {
+    }
+
+    /**
+     * Vorschau der nächsten {@code days} Tage ab heute (für Moderatoren).
+     */
+    public static List<ScheduledDaily> preview(String guildId, int days) {
+        long start = currentEpochDay();
+        List<ScheduledDaily> out = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            out.add(new ScheduledDaily(LocalDate.ofEpochDay(start + i), codeFor(guildId, start + i)));
+        }
+        return out;
+    }
+
+    /**
+     * Alter Speicherwert "yyyy-MM-dd" -> Epoch-Day; 0 wenn leer oder ungültig.
+     */
+    public static int parseLegacy(String isoDate) {
+        if (isoDate == null || isoDate.isBlank()) return 0;
+        try {
+            return (int) LocalDate.parse(isoDate).toEpochDay();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private static void scheduleNextRotation() {
+        long now = System.currentTimeMillis();
+        long nextMidnight = (Math.floorDiv(now, MILLIS_PER_DAY) + 1) * MILLIS_PER_DAY;
+        // 50ms Puffer, damit currentEpochDay() sicher schon den neuen Tag liefert
+        scheduler.schedule(() -> {
+            today.keySet().forEach(FlagDailyRotation::codeForToday);
+            scheduleNextRotation();
+        }, nextMidnight - now + 50, TimeUnit.MILLISECONDS);
+    }
+}
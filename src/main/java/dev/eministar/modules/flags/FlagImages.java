@@ -0,0 +1,206 @@
+package dev.eministar.modules.flags;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flaggenbilder lokal statt vom CDN: zuerst aus den Ressourcen ({@code /flags/<iso2>.png}), sonst aus
+ * {@code data/flags/<iso2>.png}. Dort landet jede Flagge, die beim Vorladen einmalig von flagcdn.com geholt wird.
+ * Jede Flagge wird einmal gelesen, auf die {@link Variant}-Breite skaliert und als fertiges PNG in einem
+ * LRU-Cache mit Byte-Budget gehalten; Embeds hängen die Bytes als Attachment an und zeigen sofort an.
+ * Solange ein Bild lokal fehlt, wird wie bisher auf flagcdn.com verwiesen.
+ * Das Repo bringt derzeit keine Bilder unter src/main/resources/flags mit - im Normalfall kommt also alles aus
+ * dem einmaligen Download nach data/flags.
+ */
+public final class FlagImages {
+    private static final Logger logger = LoggerFactory.getLogger(FlagImages.class);
+
+    public enum Variant {
+        // Breiten müssen eine von flagcdn.com angebotene Größe sein (w20 … w2560)
+        LARGE(640);  // Fragen, Ergebnisse, Flaggeninfo
+
+        final int width;
+
+        Variant(int width) {
+            this.width = width;
+        }
+    }
+
+    private static final String RESOURCE_DIR = "/flags/";
+    private static final Path DISK_DIR = Paths.get("data/flags");
+    // neutraler Name: Discord zeigt den Dateinamen an, der ISO-Code wäre eine gültige Antwort
+    private static final String ATTACHMENT_NAME = "flag.png";
+    private static final long MAX_CACHE_BYTES = 16L * 1024 * 1024;
+
+    private static final Map<String, byte[]> cache = new LinkedHashMap<>(512, 0.75f, true);
+    private static long cachedBytes = 0;
+    // Codes ohne Bild in den Ressourcen - nicht bei jeder Runde erneut suchen
+    private static final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    private FlagImages() {
+    }
+
+    /**
+     * Holt fehlende Flaggen einmalig nach data/flags und lädt sie im Hintergrund vor,
+     * solange das Cache-Budget reicht.
+     */
+    public static void preloadAsync() {
+        Thread t = new Thread(() -> {
+            int downloaded = 0;
+            int loaded = 0;
+            for (String code : FlagAnswerIndex.codes()) {
+                if (download(code.toLowerCase(Locale.ROOT))) downloaded++;
+                if (cachedBytes() < MAX_CACHE_BYTES * 3 / 4 && bytes(code, Variant.LARGE) != null) loaded++;
+            }
+            logger.info("FlagQuiz: {} Flaggenbilder geladen, {} vorgeladen ({} KB)", downloaded, loaded, cachedBytes() / 1024);
+        }, "flagquiz-image-preload");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Setzt das Flaggenbild ins Embed.
+     * @return das anzuhängende Bild oder null, wenn auf das CDN ausgewichen wurde
+     */
+    public static FileUpload applyImage(EmbedBuilder eb, String code, Variant variant) {
+        byte[] data = bytes(code, variant);
+        if (data == null) {
+            eb.setImage(cdnUrl(code, variant));
+            return null;
+        }
+        eb.setImage("attachment://" + ATTACHMENT_NAME);
+        return FileUpload.fromData(data, ATTACHMENT_NAME);
+    }
+
+    public static byte[] bytes(String code, Variant variant) {
+        String iso = code.toLowerCase(Locale.ROOT);
+        if (missing.contains(iso)) return null;
+        String key = iso + "@" + variant.width;
+        synchronized (cache) {
+            byte[] hit = cache.get(key);
+            if (hit != null) return hit;
+        }
+
+        BufferedImage source = read(iso);
+        if (source == null) {
+            missing.add(iso);
+            return null;
+        }
+        // alle Varianten auf einmal erzeugen, das Original wird danach nicht mehr gebraucht
+        byte[] requested = null;
+        for (Variant v : Variant.values()) {
+            byte[] png = encode(scale(source, v.width));
+            if (png == null) continue;
+            put(iso + "@" + v.width, png);
+            if (v == variant) requested = png;
+        }
+        return requested;
+    }
+
+    private static long cachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    private static void put(String key, byte[] png) {
+        synchronized (cache) {
+            byte[] old = cache.put(key, png);
+            if (old != null) cachedBytes -= old.length;
+            cachedBytes += png.length;
+            Iterator<byte[]> it = cache.values().iterator();
+            while (cachedBytes > MAX_CACHE_BYTES && it.hasNext()) {
+                cachedBytes -= it.next().length;
+                it.remove();
+            }
+        }
+    }
+
+    private static BufferedImage read(String iso) {
+        try (InputStream in = FlagImages.class.getResourceAsStream(RESOURCE_DIR + iso + ".png")) {
+            if (in != null) return ImageIO.read(in);
+            Path file = DISK_DIR.resolve(iso + ".png");
+            if (!Files.exists(file)) return null;
+            try (InputStream disk = Files.newInputStream(file)) {
+                return ImageIO.read(disk);
+            }
+        } catch (Exception e) {
+            logger.warn("FlagQuiz: Flaggenbild {} nicht lesbar", iso, e);
+            return null;
+        }
+    }
+
+    /**
+     * Lädt die Flagge von flagcdn.com nach data/flags, falls sie weder in den Ressourcen noch dort liegt.
+     * @return true, wenn tatsächlich heruntergeladen wurde
+     */
+    private static boolean download(String iso) {
+        Path file = DISK_DIR.resolve(iso + ".png");
+        if (Files.exists(file) || FlagImages.class.getResource(RESOURCE_DIR + iso + ".png") != null) return false;
+        Path tmp = file.resolveSibling(iso + ".png.tmp");
+        try {
+            Files.createDirectories(DISK_DIR);
+            try (InputStream in = new URL(cdnUrl(iso, Variant.LARGE)).openStream()) {
+                Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            missing.remove(iso);
+            return true;
+        } catch (Exception e) {
+            logger.debug("FlagQuiz: Flaggenbild {} nicht ladbar: {}", iso, e.getMessage());
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (Exception ignored) {}
+            return false;
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width) {
+        if (source.getWidth() <= width) return source;
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private static byte[] encode(BufferedImage image) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (Exception e) {
+            logger.warn("FlagQuiz: Konnte Flaggenbild nicht kodieren", e);
+            return null;
+        }
+    }
+
+    private static String cdnUrl(String code, Variant variant) {
+        return "https://flagcdn.com/w" + variant.width + "/" + code.toLowerCase(Locale.ROOT) + ".png";
+    }
+}
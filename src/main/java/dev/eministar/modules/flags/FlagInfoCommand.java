@@ -10,6 +10,7 @@ import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
 import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.utils.FileUpload;
 
 import java.awt.*;
 import java.util.Locale;
@@ -44,8 +45,10 @@ public class FlagInfoCommand implements Command {
         eb.setTitle(EmojiUtil.wrap("🚩") + " Flagge: " + FlagQuizService.countryName(code, Locale.GERMAN) + " (" + code + ")");
         eb.setDescription("Gestellt: **" + fs.asked + "**\n" +
                 "Richtig: **" + fs.correct + "** • Falsch: **" + fs.wrong + "**");
-        eb.setImage("https://flagcdn.com/w512/" + code.toLowerCase(Locale.ROOT) + ".png");
-        event.getChannel().sendMessageEmbeds(eb.build()).queue();
+        FileUpload image = FlagImages.applyImage(eb, code, FlagImages.Variant.LARGE);
+        var action = event.getChannel().sendMessageEmbeds(eb.build());
+        if (image != null) action = action.addFiles(image);
+        action.queue();
     }
 
     @Override
@@ -74,7 +77,9 @@ public class FlagInfoCommand implements Command {
         eb.setTitle(EmojiUtil.wrap("🚩") + " Flagge: " + FlagQuizService.countryName(code, java.util.Locale.GERMAN) + " (" + code + ")");
         eb.setDescription("Gestellt: **" + fs.asked + "**\n" +
                 "Richtig: **" + fs.correct + "** • Falsch: **" + fs.wrong + "**");
-        eb.setImage("https://flagcdn.com/w512/" + code.toLowerCase(java.util.Locale.ROOT) + ".png");
-        event.replyEmbeds(eb.build()).queue();
+        FileUpload image = FlagImages.applyImage(eb, code, FlagImages.Variant.LARGE);
+        var reply = event.replyEmbeds(eb.build());
+        if (image != null) reply = reply.addFiles(image);
+        reply.queue();
     }
 }
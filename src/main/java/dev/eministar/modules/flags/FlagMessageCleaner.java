@@ -0,0 +1,129 @@
+package dev.eministar.modules.flags;
+
+import net.dv8tion.jda.api.Permission;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Räumt Spielernachrichten im Quiz-Kanal gesammelt auf.
+ * Statt einem DELETE pro Rateversuch werden die IDs pro Kanal gesammelt und alle paar Sekunden (oder sobald
+ * 100 beisammen sind) per Bulk-Delete entfernt. Einzeln gelöscht wird nur, was Discord nicht mehr
+ * bulk-löschen lässt (älter als 14 Tage) oder wenn nur eine Nachricht ansteht.
+ * Fehlt MESSAGE_MANAGE im Kanal, werden dessen IDs verworfen - ein Kanal darf den Task nicht stoppen.
+ */
+public class FlagMessageCleaner {
+    private static final Logger logger = LoggerFactory.getLogger(FlagMessageCleaner.class);
+    private static final int MAX_BATCH = 100; // Discord-Limit für Bulk-Delete
+    private static final long FLUSH_INTERVAL_MILLIS = 3000;
+    // Bulk-Delete geht nur für Nachrichten jünger als 14 Tage; etwas Puffer für Uhrabweichung
+    private static final long BULK_MAX_AGE_MILLIS = TimeUnit.DAYS.toMillis(14) - TimeUnit.MINUTES.toMillis(10);
+    private static final long DISCORD_EPOCH = 1420070400000L;
+
+    private static final class Pending {
+        final GuildMessageChannel channel;
+        final Queue<Long> ids = new ConcurrentLinkedQueue<>();
+        final AtomicInteger size = new AtomicInteger();
+        // höchstens ein vorgezogener Flush pro Kanal in der Queue
+        final AtomicBoolean thresholdFlush = new AtomicBoolean();
+
+        Pending(GuildMessageChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private static final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "flagquiz-cleanup");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        scheduler.scheduleWithFixedDelay(FlagMessageCleaner::flushAll, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public static void enqueue(GuildMessageChannel channel, long messageId) {
+        // compute statt computeIfAbsent: flushAll() entfernt leere Einträge, die ID darf nicht in einem
+        // gerade entfernten Pending landen
+        Pending p = pending.compute(channel.getId(), (id, existing) -> {
+            Pending target = existing != null ? existing : new Pending(channel);
+            target.ids.add(messageId);
+            target.size.incrementAndGet();
+            return target;
+        });
+        if (p.size.get() >= MAX_BATCH && p.thresholdFlush.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                p.thresholdFlush.set(false);
+                flushSafely(p);
+            });
+        }
+    }
+
+    private static void flushAll() {
+        for (String channelId : pending.keySet()) {
+            Pending p = pending.get(channelId);
+            if (p == null) continue;
+            flushSafely(p);
+            // leere Kanäle nicht ewig festhalten
+            pending.computeIfPresent(channelId, (id, existing) -> existing.size.get() == 0 ? null : existing);
+        }
+    }
+
+    private static void flushSafely(Pending p) {
+        try {
+            flush(p);
+        } catch (Exception e) {
+            // z.B. InsufficientPermissionException, kommt synchron aus JDA
+            logger.warn("FlagQuiz: Aufräumen in Kanal {} fehlgeschlagen: {}", p.channel.getId(), e.getMessage());
+            drop(p);
+        }
+    }
+
+    private static void drop(Pending p) {
+        while (p.ids.poll() != null) {
+            p.size.decrementAndGet();
+        }
+    }
+
+    // läuft nur auf dem Scheduler-Thread
+    private static void flush(Pending p) {
+        if (!p.channel.getGuild().getSelfMember().hasPermission(p.channel, Permission.MESSAGE_MANAGE)) {
+            // fremde Nachrichten lassen sich ohne MESSAGE_MANAGE weder einzeln noch gesammelt löschen
+            drop(p);
+            return;
+        }
+        while (p.size.get() > 0) {
+            long now = System.currentTimeMillis();
+            List<String> bulk = new ArrayList<>(MAX_BATCH);
+            Long id;
+            while (bulk.size() < MAX_BATCH && (id = p.ids.poll()) != null) {
+                p.size.decrementAndGet();
+                if (now - ((id >>> 22) + DISCORD_EPOCH) < BULK_MAX_AGE_MILLIS) {
+                    bulk.add(Long.toUnsignedString(id));
+                } else {
+                    p.channel.deleteMessageById(id).queue(null, err -> {});
+                }
+            }
+            if (bulk.isEmpty()) return;
+            if (bulk.size() == 1) {
+                // Bulk-Delete braucht mindestens 2 Nachrichten
+                p.channel.deleteMessageById(bulk.get(0)).queue(null, err -> {});
+            } else {
+                p.channel.deleteMessagesByIds(bulk).queue(null, err -> {});
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dev.eministar.modules.flags;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gewichtete Flaggenauswahl pro Guild.
+ * Jede Flagge bekommt aus ihren {@link FlagQuizService.FlagStats} ein Gewicht: wie nah ihre Trefferquote am
+ * gewünschten Schwierigkeitsband liegt, plus ein Bonus für selten gestellte Flaggen. Gezogen wird über eine
+ * Alias-Tabelle (Vose) in O(1). Antworten ändern nur das Gewicht ihrer Flagge; die Tabelle wird erst nach
+ * {@link #REBUILD_EVERY} Änderungen neu gebaut (O(n), n ~ 250) und danach atomar ausgetauscht.
+ */
+public class FlagQuestionSelector {
+    public enum Difficulty {
+        MIXED("gemischt", -1),
+        EASY("leicht", 0.8),
+        MEDIUM("mittel", 0.55),
+        HARD("schwer", 0.3);
+
+        public final String label;
+        // angestrebte Trefferquote, < 0 = egal
+        final double targetRate;
+
+        Difficulty(String label, double targetRate) {
+            this.label = label;
+            this.targetRate = targetRate;
+        }
+
+        public static Difficulty parse(String input) {
+            if (input == null) return null;
+            String in = input.trim().toLowerCase(Locale.ROOT);
+            for (Difficulty d : values()) {
+                if (d.label.equals(in) || d.name().toLowerCase(Locale.ROOT).equals(in)) return d;
+            }
+            return null;
+        }
+    }
+
+    static final int REBUILD_EVERY = 16;
+    // Breite des Schwierigkeitsbands (Standardabweichung um die Ziel-Trefferquote)
+    private static final double BAND_WIDTH = 0.15;
+    // jede Flagge bleibt möglich, auch weit außerhalb des Bands
+    private static final double MIN_WEIGHT = 0.02;
+
+    private record Table(String[] codes, double[] prob, int[] alias) {
+        String sample() {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            int i = rnd.nextInt(codes.length);
+            return rnd.nextDouble() < prob[i] ? codes[i] : codes[alias[i]];
+        }
+    }
+
+    private final String[] codes;
+    private final Map<String, Integer> indexOf = new HashMap<>();
+    private final double[] weights;
+    private Difficulty difficulty = Difficulty.MIXED;
+    private int pendingChanges = 0;
+    private volatile Table table;
+
+    public FlagQuestionSelector(List<String> codes) {
+        this.codes = codes.toArray(new String[0]);
+        this.weights = new double[this.codes.length];
+        for (int i = 0; i < this.codes.length; i++) indexOf.put(this.codes[i], i);
+        reset(Difficulty.MIXED, Map.of());
+    }
+
+    /**
+     * Berechnet alle Gewichte neu, z.B. nach dem Laden oder wenn das Band geändert wurde.
+     */
+    public synchronized void reset(Difficulty difficulty, Map<String, FlagQuizService.FlagStats> stats) {
+        this.difficulty = difficulty != null ? difficulty : Difficulty.MIXED;
+        for (int i = 0; i < codes.length; i++) {
+            weights[i] = weight(stats.get(codes[i]), this.difficulty);
+        }
+        rebuild();
+    }
+
+    /**
+     * Nach jeder Änderung an den Stats einer Flagge aufrufen.
+     */
+    public synchronized void observe(String code, FlagQuizService.FlagStats fs) {
+        Integer idx = indexOf.get(code);
+        if (idx == null) return;
+        weights[idx] = weight(fs, difficulty);
+        if (++pendingChanges >= REBUILD_EVERY) rebuild();
+    }
+
+    public synchronized Difficulty difficulty() {
+        return difficulty;
+    }
+
+    public String next() {
+        return table.sample();
+    }
+
+    private static double weight(FlagQuizService.FlagStats fs, Difficulty difficulty) {
+        int asked = fs != null ? fs.asked : 0;
+        int correct = fs != null ? fs.correct : 0;
+        int wrong = fs != null ? fs.wrong : 0;
+        double novelty = 1.0 + 1.0 / (1 + asked);
+        if (difficulty.targetRate < 0) return novelty;
+        // Trefferquote mit Laplace-Glättung, unbekannte Flaggen liegen bei 0.5
+        double rate = (correct + 1.0) / (correct + wrong + 2.0);
+        double d = (rate - difficulty.targetRate) / BAND_WIDTH;
+        return Math.exp(-0.5 * d * d) * novelty + MIN_WEIGHT;
+    }
+
+    // Vose's Alias-Methode
+    private void rebuild() {
+        pendingChanges = 0;
+        int n = codes.length;
+        double total = 0;
+        for (double w : weights) total += w;
+        double[] prob = new double[n];
+        int[] alias = new int[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int s = 0;
+        int l = 0;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[s++] = i;
+            else large[l++] = i;
+        }
+        while (s > 0 && l > 0) {
+            int lo = small[--s];
+            int hi = large[--l];
+            prob[lo] = scaled[lo];
+            alias[lo] = hi;
+            scaled[hi] = scaled[hi] + scaled[lo] - 1.0;
+            if (scaled[hi] < 1.0) small[s++] = hi;
+            else large[l++] = hi;
+        }
+        while (l > 0) prob[large[--l]] = 1.0;
+        while (s > 0) prob[small[--s]] = 1.0; // Rundungsreste
+        table = new Table(codes, prob, alias);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.eministar.modules.flags;
 
 import dev.eministar.config.Config;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
@@ -27,8 +28,12 @@ public class FlagQuizListener extends ListenerAdapter {
         // Antwortversuch an laufende Runde weiterreichen
         FlagQuizService.handleMessageAnswer(guild.getId(), channel.getId(), channel, event.getMember(), content);
 
-        // User-Nachricht aus dem Quiz-Channel entfernen (aufgeräumt)
-        event.getMessage().delete().queue(null, err -> {});
+        // User-Nachricht aus dem Quiz-Channel entfernen (gesammelt per Bulk-Delete)
+        if (channel instanceof GuildMessageChannel gmc) {
+            FlagMessageCleaner.enqueue(gmc, event.getMessageIdLong());
+        } else {
+            event.getMessage().delete().queue(null, err -> {});
+        }
 
         // Dashboard Live-Refresh bei jeder Nachricht im Quiz-Channel
         if (channel instanceof net.dv8tion.jda.api.entities.channel.concrete.TextChannel tc) {
@@ -11,24 +11,35 @@ import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.utils.FileUpload;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.*;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
-import java.text.Normalizer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.*;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import dev.eministar.util.EmojiUtil;
+import dev.eministar.util.RankingIndex;
 
 /**
  * Zentrale Logik für das Flaggenquiz: Rundenzustand, Punkte, Streaks, Leaderboard, Channel-Bindung und Persistenz.
@@ -43,33 +54,41 @@ public class FlagQuizService {
     public static final int POINTS_DAILY_BONUS = 15; // zusätzlich zu NORMAL
 
     private static final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+    // Runden-Timeouts: Timing-Wheel mit 100ms Auflösung, kein gemeinsamer Heap-Lock für alle Kanäle
+    private static final RoundTimer roundTimer = new RoundTimer(100, 512);
+    private static final AtomicLong ROUND_IDS = new AtomicLong();
 
     // Datenhaltung pro Guild
     private static final Map<String, GuildData> guilds = new ConcurrentHashMap<>();
 
-    // Persistenz
-    private static final File DATA_FILE = new File("flagquiz-stats.json");
+    // Persistenz: eine Datei pro Guild, geänderte Guilds werden gesammelt alle FLUSH_INTERVAL_MILLIS geschrieben
+    private static final Path DATA_DIR = Paths.get("data/flagquiz");
+    private static final File LEGACY_FILE = new File("flagquiz-stats.json");
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;
+    private static final Set<String> dirtyGuilds = ConcurrentHashMap.newKeySet();
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    // Alias für häufige Sonderfälle
-    private static final Map<String, String> ALIAS_TO_CODE = buildAliasMap();
+    static {
+        scheduler.scheduleWithFixedDelay(FlagQuizService::flushDirty, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(FlagQuizService::flushDirty, "flagquiz-flush"));
+    }
 
     // ISO-Länderliste (alpha-2)
-    private static final List<String> ISO_CODES = List.of(Locale.getISOCountries());
+    private static final List<String> ISO_CODES = FlagAnswerIndex.codes();
 
     private static final Map<String, Long> lastDashboardUpdate = new ConcurrentHashMap<>();
 
     public enum Mode { NORMAL, EASY, DAILY }
 
-    public record ActiveRound(String guildId,
+    public record ActiveRound(long roundId,
+                              String guildId,
                               String channelId,
                               Mode mode,
                               String code,
-                              Set<String> acceptedAnswers,
                               Map<String, String> buttonIdToCode,
                               long messageId,
                               long startEpochMillis,
-                              ScheduledFuture<?> timeoutTask,
+                              RoundTimer.Timeout timeoutTask,
                               Set<String> answeredUsers,
                               String targetUserId) {
     }
@@ -80,8 +99,10 @@ public class FlagQuizService {
         public int wrong;
         public int currentStreak;
         public int bestStreak;
-        public String lastDaily; // yyyy-MM-dd
-        public Set<String> achievements = new HashSet<>();
+        public int lastDailyDay; // UTC-Epoch-Day der letzten gewonnenen Daily, 0 = nie
+        public String lastDaily; // alte Speicherform (yyyy-MM-dd), wird beim Laden übernommen
+        public long achievementBits; // siehe FlagAchievements
+        public Set<String> achievements; // alte Speicherform, wird beim Laden in achievementBits übernommen
     }
 
     public static class FlagStats {
@@ -91,41 +112,138 @@ public class FlagQuizService {
     }
 
     public static class GuildData {
-        // pro Channel mehrere Runden: je Ziel-User eine Runde
-        public Map<String, Map<String, ActiveRound>> roundsByChannel = new ConcurrentHashMap<>();
+        // pro Channel mehrere Runden: je Ziel-User eine Runde (nur im Speicher, hält Timer-Handles)
+        public transient Map<String, Map<String, ActiveRound>> roundsByChannel = new ConcurrentHashMap<>();
         public Map<String, PlayerStats> statsByUser = new ConcurrentHashMap<>();
         public String quizChannelId = null; // in welchem Kanal gespielt wird
         public Long dashboardMessageId = null; // persistente Dashboard-Nachricht
         public Map<String, FlagStats> flagStats = new ConcurrentHashMap<>(); // pro ISO-Code
+        public FlagQuestionSelector.Difficulty difficulty = FlagQuestionSelector.Difficulty.MIXED;
+
+        // laufend gepflegt, nicht gespeichert - nach dem Laden per rebuildIndexes() aufgebaut.
+        // RankingIndex statt Top-K wie im CountingLeaderboard, weil Streaks auch wieder sinken
+        private transient RankingIndex pointsRanking = new RankingIndex();
+        private transient RankingIndex streakRanking = new RankingIndex();
+        private transient AtomicInteger totalAsked = new AtomicInteger();
+        private transient AtomicInteger bestStreak = new AtomicInteger();
+        private transient FlagQuestionSelector selector = new FlagQuestionSelector(FlagAnswerIndex.codes());
+
+        // nach jeder Änderung an fs aufrufen (unter synchronized(fs))
+        private void flagChanged(String code, FlagStats fs) {
+            selector.observe(code, fs);
+        }
+
+        // nach jeder Änderung an ps aufrufen (unter synchronized(ps))
+        private void playerChanged(String userId, PlayerStats ps) {
+            pointsRanking.update(userId, ps.totalPoints);
+            streakRanking.update(userId, ps.currentStreak);
+            bestStreak.accumulateAndGet(ps.bestStreak, Math::max);
+        }
+
+        // nach dem Laden (Gson setzt transiente Felder nicht)
+        private void rebuildIndexes() {
+            if (roundsByChannel == null) roundsByChannel = new ConcurrentHashMap<>();
+            if (statsByUser == null) statsByUser = new ConcurrentHashMap<>();
+            if (flagStats == null) flagStats = new ConcurrentHashMap<>();
+            if (difficulty == null) difficulty = FlagQuestionSelector.Difficulty.MIXED;
+            pointsRanking = new RankingIndex();
+            streakRanking = new RankingIndex();
+            totalAsked = new AtomicInteger(flagStats.values().stream().mapToInt(fs -> fs.asked).sum());
+            bestStreak = new AtomicInteger();
+            statsByUser.values().forEach(ps -> {
+                if (ps.lastDaily != null) {
+                    ps.lastDailyDay = Math.max(ps.lastDailyDay, FlagDailyRotation.parseLegacy(ps.lastDaily));
+                    ps.lastDaily = null;
+                }
+                if (ps.achievements != null) {
+                    ps.achievementBits |= FlagAchievements.fromKeys(ps.achievements);
+                    ps.achievements = null;
+                }
+            });
+            statsByUser.forEach(this::playerChanged);
+            selector = new FlagQuestionSelector(FlagAnswerIndex.codes());
+            selector.reset(difficulty, flagStats);
+        }
     }
 
     // ---- Initialisierung / Persistenz ----
 
     public static void load() {
-        if (!DATA_FILE.exists()) return;
-        try (FileReader fr = new FileReader(DATA_FILE)) {
-            Type type = new TypeToken<Map<String, GuildData>>() {}.getType();
-            Map<String, GuildData> loaded = GSON.fromJson(fr, type);
-            if (loaded != null) {
-                guilds.clear();
-                guilds.putAll(loaded);
+        try {
+            if (Files.isDirectory(DATA_DIR)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(DATA_DIR, "*.json")) {
+                    for (Path file : files) {
+                        String guildId = file.getFileName().toString().replace(".json", "");
+                        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+                            GuildData data = GSON.fromJson(reader, GuildData.class);
+                            if (data == null) continue;
+                            data.rebuildIndexes();
+                            guilds.put(guildId, data);
+                        } catch (Exception e) {
+                            logger.error("FlagQuiz: Konnte Stats von Guild {} nicht laden", guildId, e);
+                        }
+                    }
+                }
+            } else if (LEGACY_FILE.exists()) {
+                migrateLegacyFile();
             }
             logger.info("FlagQuiz: Stats geladen ({} Guilds)", guilds.size());
+            FlagImages.preloadAsync();
+            guilds.keySet().forEach(FlagDailyRotation::codeForToday);
         } catch (Exception e) {
             logger.error("FlagQuiz: Konnte Stats nicht laden", e);
         }
     }
 
-    public static void saveAsync() {
-        scheduler.schedule(FlagQuizService::saveNow, 500, TimeUnit.MILLISECONDS);
+    // alte Gesamtdatei (alle Guilds) einmalig in Dateien pro Guild aufteilen
+    private static void migrateLegacyFile() throws Exception {
+        try (FileReader fr = new FileReader(LEGACY_FILE, StandardCharsets.UTF_8)) {
+            Type type = new TypeToken<Map<String, GuildData>>() {}.getType();
+            Map<String, GuildData> loaded = GSON.fromJson(fr, type);
+            if (loaded == null) return;
+            loaded.values().forEach(GuildData::rebuildIndexes);
+            guilds.putAll(loaded);
+        }
+        dirtyGuilds.addAll(guilds.keySet());
+        flushDirty();
+        if (dirtyGuilds.isEmpty()) {
+            Files.move(LEGACY_FILE.toPath(), LEGACY_FILE.toPath().resolveSibling(LEGACY_FILE.getName() + ".migrated"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            logger.info("FlagQuiz: {} in {} aufgeteilt", LEGACY_FILE.getName(), DATA_DIR);
+        }
+    }
+
+    /**
+     * Merkt die Guild zum Speichern vor; geschrieben wird gesammelt beim nächsten Flush.
+     */
+    public static void markDirty(String guildId) {
+        dirtyGuilds.add(guildId);
+    }
+
+    private static synchronized void flushDirty() {
+        if (dirtyGuilds.isEmpty()) return;
+        for (String guildId : List.copyOf(dirtyGuilds)) {
+            // vor dem Schreiben austragen, damit Änderungen währenddessen wieder markieren
+            dirtyGuilds.remove(guildId);
+            GuildData data = guilds.get(guildId);
+            if (data == null) continue;
+            try {
+                writeGuild(guildId, data);
+            } catch (Exception e) {
+                dirtyGuilds.add(guildId); // nächster Flush versucht es erneut
+                logger.error("FlagQuiz: Speichern von Guild {} fehlgeschlagen", guildId, e);
+            }
+        }
     }
 
-    private static synchronized void saveNow() {
-        try (FileWriter fw = new FileWriter(DATA_FILE)) {
-            GSON.toJson(guilds, fw);
-        } catch (Exception e) {
-            logger.error("FlagQuiz: Speichern fehlgeschlagen", e);
+    private static void writeGuild(String guildId, GuildData data) throws Exception {
+        Files.createDirectories(DATA_DIR);
+        Path file = DATA_DIR.resolve(guildId + ".json");
+        Path tmp = DATA_DIR.resolve(guildId + ".json.tmp");
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(tmp), StandardCharsets.UTF_8))) {
+            GSON.toJson(data, writer);
         }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     private static GuildData gd(String guildId) {
@@ -145,7 +263,7 @@ public class FlagQuizService {
     public static void setQuizChannel(String guildId, String channelId) {
         GuildData g = gd(guildId);
         g.quizChannelId = channelId;
-        saveAsync();
+        markDirty(guildId);
     }
 
     public static String getQuizChannelId(String guildId) {
@@ -156,7 +274,18 @@ public class FlagQuizService {
     public static void setDashboardMessageId(String guildId, Long messageId) {
         GuildData g = gd(guildId);
         g.dashboardMessageId = messageId;
-        saveAsync();
+        markDirty(guildId);
+    }
+
+    public static void setDifficulty(String guildId, FlagQuestionSelector.Difficulty difficulty) {
+        GuildData g = gd(guildId);
+        g.difficulty = difficulty;
+        g.selector.reset(difficulty, g.flagStats);
+        markDirty(guildId);
+    }
+
+    public static FlagQuestionSelector.Difficulty getDifficulty(String guildId) {
+        return gd(guildId).difficulty;
     }
 
     public static Long getDashboardMessageId(String guildId) {
@@ -219,16 +348,17 @@ public class FlagQuizService {
         String avatar = self.getEffectiveAvatarUrl();
         GuildData g = gd(guildId);
 
-        // Live-Stats
+        // Live-Stats (laufende Zähler, kein Durchlauf über alle Spieler)
         int uniquePlayers = g.statsByUser.size();
-        int totalAsked = g.flagStats.values().stream().mapToInt(fs -> fs.asked).sum();
-        int bestStreak = g.statsByUser.values().stream().mapToInt(ps -> ps.bestStreak).max().orElse(0);
-        var topEntry = g.statsByUser.entrySet().stream().max(Comparator.comparingInt(e -> e.getValue().totalPoints)).orElse(null);
+        int totalAsked = g.totalAsked.get();
+        int bestStreak = g.bestStreak.get();
+        List<RankingIndex.Entry> top = g.pointsRanking.top(1);
         String topLine;
-        if (topEntry != null) {
-            var topUser = jda.getUserById(topEntry.getKey());
-            String topName = topUser != null ? topUser.getName() : ("<" + topEntry.getKey() + ">");
-            topLine = "#1 " + topName + " — " + topEntry.getValue().totalPoints + " Punkte";
+        if (!top.isEmpty()) {
+            RankingIndex.Entry topEntry = top.get(0);
+            var topUser = jda.getUserById(topEntry.userId());
+            String topName = topUser != null ? topUser.getName() : ("<" + topEntry.userId() + ">");
+            topLine = "#1 " + topName + " — " + topEntry.score() + " Punkte";
         } else {
             topLine = "Noch kein Leader";
         }
@@ -284,16 +414,24 @@ public class FlagQuizService {
         return channelRounds(data, channelId).get(userId);
     }
 
-    private static void putRound(GuildData data, ActiveRound round) {
-        channelRounds(data, round.channelId).put(round.targetUserId, round);
+    /**
+     * Registriert die Runde nur, wenn für diesen Spieler im Kanal noch keine läuft.
+     * @return false wenn bereits eine Runde existiert
+     */
+    private static boolean putRound(GuildData data, ActiveRound round) {
+        return channelRounds(data, round.channelId).putIfAbsent(round.targetUserId, round) == null;
     }
 
-    private static void removeRound(GuildData data, String channelId, String userId) {
-        Map<String, ActiveRound> map = data.roundsByChannel.get(channelId);
-        if (map != null) map.remove(userId);
+    /**
+     * Entfernt genau diese Runde (nicht eine neuere für denselben Spieler).
+     * Nur wer true zurückbekommt, darf die Runde abschließen - Timeout und Antwort können so nicht beide gewinnen.
+     */
+    private static boolean removeRound(GuildData data, ActiveRound round) {
+        Map<String, ActiveRound> map = data.roundsByChannel.get(round.channelId);
+        return map != null && map.remove(round.targetUserId, round);
     }
 
-    public static synchronized boolean startRound(String guildId, String channelId, MessageChannel channel, Mode mode, String targetUserId) {
+    public static boolean startRound(String guildId, String channelId, MessageChannel channel, Mode mode, String targetUserId) {
         GuildData data = gd(guildId);
         // Channel-Check
         if (data.quizChannelId != null && !Objects.equals(data.quizChannelId, channelId)) {
@@ -302,29 +440,19 @@ public class FlagQuizService {
             return false;
         }
 
-        // Prüfe nur pro Zielspieler in diesem Channel
+        // Schneller Vorab-Check; verbindlich ist erst putRound weiter unten
         if (getRound(data, channelId, targetUserId) != null) {
-            channel.sendMessage(EmojiUtil.wrap("ℹ️") + "Für dich läuft in diesem Kanal bereits eine Runde.")
-                    .queue(m -> m.delete().queueAfter(10, TimeUnit.SECONDS, s -> {}, f -> {}));
+            sendRoundAlreadyRunning(channel);
             return false;
         }
-        String code = (mode == Mode.DAILY) ? dailyCodeForGuild(guildId, LocalDate.now(ZoneOffset.UTC)) : randomCode();
-        Set<String> accepted = buildAcceptedAnswers(code);
-
-        // Flaggen-Stat updaten (gestellt)
-        FlagStats fs = flagStats(guildId, code);
-        fs.asked++;
-        saveAsync();
+        // Daily bleibt für alle gleich, sonst gewichtet nach Schwierigkeitsband der Guild
+        String code = (mode == Mode.DAILY) ? FlagDailyRotation.codeForToday(guildId) : data.selector.next();
 
         Map<String, String> buttons = null;
         if (mode == Mode.EASY) {
-            // 3 Distraktoren + richtige Antwort
-            List<String> options = new ArrayList<>();
+            // 3 Distraktoren (ähnliche Flaggen / gleiche Region) + richtige Antwort
+            List<String> options = new ArrayList<>(FlagClusters.distractors(code, 3, data.selector::next));
             options.add(code);
-            while (options.size() < 4) {
-                String c = randomCode();
-                if (!options.contains(c)) options.add(c);
-            }
             Collections.shuffle(options);
             buttons = new LinkedHashMap<>();
             for (String opt : options) {
@@ -333,6 +461,40 @@ public class FlagQuizService {
             }
         }
 
+        // Timeout task -> schließt gezielt genau diese Runde
+        long roundId = ROUND_IDS.incrementAndGet();
+        RoundTimer.Timeout timeout = roundTimer.schedule(() -> endRoundTimeout(guildId, channelId, targetUserId, roundId, channel), TIME_LIMIT_SECONDS, TimeUnit.SECONDS);
+
+        // Runde atomar registrieren; parallel gestartete Runde desselben Spielers verliert hier
+        long start = System.currentTimeMillis();
+        ActiveRound round = new ActiveRound(
+                roundId,
+                guildId,
+                channelId,
+                mode,
+                code,
+                buttons,
+                0L,
+                start,
+                timeout,
+                ConcurrentHashMap.newKeySet(),
+                targetUserId
+        );
+        if (!putRound(data, round)) {
+            timeout.cancel();
+            sendRoundAlreadyRunning(channel);
+            return false;
+        }
+
+        // Flaggen-Stat updaten (gestellt)
+        FlagStats fs = flagStats(guildId, code);
+        synchronized (fs) {
+            fs.asked++;
+            data.flagChanged(code, fs);
+        }
+        data.totalAsked.incrementAndGet();
+        markDirty(guildId);
+
         // Nachricht absenden
         String flag = flagEmojiFor(code);
         EmbedBuilder eb = new EmbedBuilder();
@@ -340,7 +502,7 @@ public class FlagQuizService {
         eb.setAuthor("Flaggenquiz", null, channel.getJDA().getSelfUser().getEffectiveAvatarUrl());
         eb.setTitle(EmojiUtil.wrap("🎯") + "Errate die Flagge");
         eb.setDescription("Antworte mit dem Ländernamen (Deutsch oder Englisch).\nZeit: " + TIME_LIMIT_SECONDS + "s");
-        eb.setImage(flagImageUrl(code));
+        FileUpload image = FlagImages.applyImage(eb, code, FlagImages.Variant.LARGE);
         eb.addField("Für", "<@" + targetUserId + ">", true);
         eb.addField("Flagge", flag, true);
         String hist = "Gestellt: **" + fs.asked + "** • Richtig: **" + fs.correct + "** • Falsch: **" + fs.wrong + "**";
@@ -348,6 +510,7 @@ public class FlagQuizService {
         eb.setFooter("Nur die Antworten von <@" + targetUserId + "> zählen • Nachricht wird gelöscht", null);
         eb.setTimestamp(java.time.Instant.now());
         var action = channel.sendMessageEmbeds(eb.build());
+        if (image != null) action = action.addFiles(image);
         if (buttons != null) {
             List<Button> btns = new ArrayList<>();
             for (Map.Entry<String, String> e : buttons.entrySet()) {
@@ -358,51 +521,42 @@ public class FlagQuizService {
             action = action.setActionRow(btns);
         }
 
-        long start = System.currentTimeMillis();
         action.queue(msg -> msg.delete().queueAfter(TIME_LIMIT_SECONDS, TimeUnit.SECONDS, s -> {}, f -> {}));
-
-        // Timeout task -> muss gezielt die Runde dieses Users schließen
-        ScheduledFuture<?> future = scheduler.schedule(() -> endRoundTimeout(guildId, channelId, targetUserId, channel, code), TIME_LIMIT_SECONDS, TimeUnit.SECONDS);
-
-        // Runde registrieren, ohne blockierend zu warten
-        ActiveRound round = new ActiveRound(
-                guildId,
-                channelId,
-                mode,
-                code,
-                accepted,
-                buttons,
-                0L,
-                start,
-                future,
-                ConcurrentHashMap.newKeySet(),
-                targetUserId
-        );
-        putRound(data, round);
         return true;
     }
 
-    private static void endRoundTimeout(String guildId, String channelId, String targetUserId, MessageChannel channel, String code) {
+    private static void sendRoundAlreadyRunning(MessageChannel channel) {
+        channel.sendMessage(EmojiUtil.wrap("ℹ️") + "Für dich läuft in diesem Kanal bereits eine Runde.")
+                .queue(m -> m.delete().queueAfter(10, TimeUnit.SECONDS, s -> {}, f -> {}));
+    }
+
+    private static void endRoundTimeout(String guildId, String channelId, String targetUserId, long roundId, MessageChannel channel) {
         GuildData data = gd(guildId);
         ActiveRound round = getRound(data, channelId, targetUserId);
-        if (round == null) return;
-        removeRound(data, channelId, targetUserId);
+        if (round == null || round.roundId != roundId) return;
+        // Antwort kam gleichzeitig und hat gewonnen
+        if (!removeRound(data, round)) return;
+        String code = round.code;
         // Flaggenstats: falsch erhöhen (Timeout)
         FlagStats fs = flagStats(guildId, code);
-        fs.wrong++;
-        saveAsync();
+        synchronized (fs) {
+            fs.wrong++;
+            data.flagChanged(code, fs);
+        }
+        markDirty(guildId);
         String answer = countryName(code, Locale.GERMAN) + " / " + countryName(code, Locale.ENGLISH);
         EmbedBuilder eb = new EmbedBuilder();
         eb.setColor(new Color(0xED4245));
         eb.setAuthor("Flaggenquiz", null, channel.getJDA().getSelfUser().getEffectiveAvatarUrl());
         eb.setTitle(EmojiUtil.wrap("⏱️") + "Zeit abgelaufen!");
         eb.setDescription("Richtige Antwort: **" + answer + "**");
-        eb.setImage(flagImageUrl(code));
+        FileUpload image = FlagImages.applyImage(eb, code, FlagImages.Variant.LARGE);
         String hist = "Gestellt: **" + fs.asked + "** • Richtig: **" + fs.correct + "** • Falsch: **" + fs.wrong + "**";
         eb.addField("Bisher", hist, false);
         eb.setTimestamp(java.time.Instant.now());
-        channel.sendMessageEmbeds(eb.build())
-                .queue(m -> m.delete().queueAfter(30, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
+        var action = channel.sendMessageEmbeds(eb.build());
+        if (image != null) action = action.addFiles(image);
+        action.queue(m -> m.delete().queueAfter(30, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
         if (channel instanceof TextChannel tc) tryEnsureDashboardMessage(guildId, tc);
     }
 
@@ -412,8 +566,7 @@ public class FlagQuizService {
         ActiveRound round = getRound(data, channelId, member.getId());
         if (round == null) return; // nur Zielspieler
 
-        String normalized = normalize(contentRaw);
-        if (matches(round, normalized)) {
+        if (matches(round, contentRaw)) {
             if (!round.answeredUsers.add(member.getId())) { return; }
             finishRoundWin(data, round, channel, member.getUser());
         } else {
@@ -472,14 +625,20 @@ public class FlagQuizService {
     }
 
     private static void finishRoundLose(GuildData data, ActiveRound round, MessageChannel channel, User offender) {
-        if (round.timeoutTask != null) round.timeoutTask.cancel(false);
-        removeRound(data, round.channelId, round.targetUserId);
+        if (!removeRound(data, round)) return; // Timeout war schneller
+        if (round.timeoutTask != null) round.timeoutTask.cancel();
         PlayerStats ps = stats(round.guildId, offender.getId());
-        ps.currentStreak = 0;
-        ps.wrong++;
+        synchronized (ps) {
+            ps.currentStreak = 0;
+            ps.wrong++;
+            data.playerChanged(offender.getId(), ps);
+        }
         FlagStats fs = flagStats(round.guildId, round.code);
-        fs.wrong++;
-        saveAsync();
+        synchronized (fs) {
+            fs.wrong++;
+            data.flagChanged(round.code, fs);
+        }
+        markDirty(round.guildId);
 
         String answer = countryName(round.code, Locale.GERMAN) + " / " + countryName(round.code, Locale.ENGLISH);
         EmbedBuilder eb = new EmbedBuilder();
@@ -487,17 +646,19 @@ public class FlagQuizService {
         eb.setAuthor("Flaggenquiz", null, channel.getJDA().getSelfUser().getEffectiveAvatarUrl());
         eb.setTitle(EmojiUtil.wrap("❌") + "Falsche Antwort – Runde beendet");
         eb.setDescription(offender.getAsMention() + " lag daneben.\nRichtige Antwort: **" + answer + "**");
-        eb.setImage(flagImageUrl(round.code));
+        FileUpload image = FlagImages.applyImage(eb, round.code, FlagImages.Variant.LARGE);
         String hist = "Gestellt: **" + fs.asked + "** • Richtig: **" + fs.correct + "** • Falsch: **" + fs.wrong + "**";
         eb.addField("Bisher", hist, false);
         eb.setTimestamp(java.time.Instant.now());
-        channel.sendMessageEmbeds(eb.build()).queue(m -> m.delete().queueAfter(30, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
+        var action = channel.sendMessageEmbeds(eb.build());
+        if (image != null) action = action.addFiles(image);
+        action.queue(m -> m.delete().queueAfter(30, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
         if (channel instanceof TextChannel tc) tryEnsureDashboardMessage(round.guildId, tc);
     }
 
     private static void finishRoundWin(GuildData data, ActiveRound round, MessageChannel channel, User winner) {
-        if (round.timeoutTask != null) round.timeoutTask.cancel(false);
-        removeRound(data, round.channelId, round.targetUserId);
+        if (!removeRound(data, round)) return; // Timeout war schneller
+        if (round.timeoutTask != null) round.timeoutTask.cancel();
 
         PlayerStats ps = stats(round.guildId, winner.getId());
         int gained = switch (round.mode) {
@@ -505,17 +666,23 @@ public class FlagQuizService {
             case DAILY -> POINTS_NORMAL + POINTS_DAILY_BONUS;
             default -> POINTS_NORMAL;
         };
-        if (round.mode == Mode.DAILY) {
-            ps.lastDaily = LocalDate.now(ZoneOffset.UTC).toString();
+        synchronized (ps) {
+            if (round.mode == Mode.DAILY) {
+                ps.lastDailyDay = FlagDailyRotation.currentEpochDay();
+            }
+            ps.totalPoints += gained;
+            ps.correct++;
+            ps.currentStreak++;
+            ps.bestStreak = Math.max(ps.bestStreak, ps.currentStreak);
+            data.playerChanged(winner.getId(), ps);
+            checkAchievements(ps, channel, winner);
         }
-        ps.totalPoints += gained;
-        ps.correct++;
-        ps.currentStreak++;
-        ps.bestStreak = Math.max(ps.bestStreak, ps.currentStreak);
         FlagStats fs = flagStats(round.guildId, round.code);
-        fs.correct++;
-        checkAchievements(ps, channel, winner);
-        saveAsync();
+        synchronized (fs) {
+            fs.correct++;
+            data.flagChanged(round.code, fs);
+        }
+        markDirty(round.guildId);
 
         String answer = countryName(round.code, Locale.GERMAN) + " / " + countryName(round.code, Locale.ENGLISH);
         EmbedBuilder eb = new EmbedBuilder();
@@ -525,67 +692,42 @@ public class FlagQuizService {
         eb.setDescription(winner.getAsMention() + " hat korrekt geantwortet.\n" +
                 "Lösung: **" + answer + "**\n" +
                 "Punkte: +" + gained + " (Streak: " + ps.currentStreak + ")");
-        eb.setImage(flagImageUrl(round.code));
+        FileUpload image = FlagImages.applyImage(eb, round.code, FlagImages.Variant.LARGE);
         String hist = "Gestellt: **" + fs.asked + "** • Richtig: **" + fs.correct + "** • Falsch: **" + fs.wrong + "**";
         eb.addField("Bisher", hist, false);
         eb.setTimestamp(java.time.Instant.now());
-        channel.sendMessageEmbeds(eb.build()).queue(m -> m.delete().queueAfter(30, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
+        var action = channel.sendMessageEmbeds(eb.build());
+        if (image != null) action = action.addFiles(image);
+        action.queue(m -> m.delete().queueAfter(30, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
         if (channel instanceof TextChannel tc) tryEnsureDashboardMessage(round.guildId, tc);
     }
 
     // ---- Helper ----
 
-    private static boolean matches(ActiveRound round, String normalizedUser) {
+    private static boolean matches(ActiveRound round, String userInput) {
         if (round == null) return false;
-        if (round.acceptedAnswers.contains(normalizedUser)) return true;
-        // auch ISO Code direkt erlauben (z.B. DE, US)
-        return normalizedUser.equalsIgnoreCase(round.code);
-    }
-
-    private static Set<String> buildAcceptedAnswers(String code) {
-        Set<String> set = new HashSet<>();
-        String de = countryName(code, Locale.GERMAN);
-        String en = countryName(code, Locale.ENGLISH);
-        set.add(normalize(de));
-        set.add(normalize(en));
-        // häufige Aliase für diesen Code
-        for (Map.Entry<String, String> e : ALIAS_TO_CODE.entrySet()) {
-            if (e.getValue().equalsIgnoreCase(code)) {
-                set.add(normalize(e.getKey()));
-            }
-        }
-        return set;
+        // Name (de/en), Alias oder ISO-Code (z.B. DE, US) - alles über den vorberechneten Index
+        String exact = FlagAnswerIndex.lookup(userInput);
+        if (exact != null) return round.code.equals(exact);
+        // kein bekannter Name -> Tippfehler tolerieren ("Philipines")
+        return round.code.equals(FlagAnswerIndex.fuzzyLookup(userInput));
     }
 
     public static String countryName(String iso2, Locale locale) {
         try {
-            return new Locale("", iso2).getDisplayCountry(locale);
+            return FlagAnswerIndex.displayName(iso2, locale);
         } catch (Exception e) {
             return iso2.toUpperCase(Locale.ROOT);
         }
     }
 
     public static String normalize(String s) {
-        String x = s.trim().toLowerCase(Locale.ROOT);
-        x = Normalizer.normalize(x, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
-        x = x.replaceAll("[^a-z0-9 ]", " ");
-        x = x.replaceAll("\\s+", " ").trim();
-        return x;
-    }
-
-    private static String randomCode() {
-        return ISO_CODES.get(ThreadLocalRandom.current().nextInt(ISO_CODES.size()));
-    }
-
-    private static String dailyCodeForGuild(String guildId, LocalDate date) {
-        int base = Math.abs(Objects.hash(guildId, date.toString()));
-        return ISO_CODES.get(base % ISO_CODES.size());
+        return FlagAnswerIndex.normalize(s);
     }
 
     public static boolean canDoDaily(String guildId, String userId) {
-        PlayerStats ps = stats(guildId, userId);
-        String today = LocalDate.now(ZoneOffset.UTC).toString();
-        return ps.lastDaily == null || !ps.lastDaily.equals(today);
+        PlayerStats ps = gd(guildId).statsByUser.get(userId);
+        return ps == null || ps.lastDailyDay != FlagDailyRotation.currentEpochDay();
     }
 
 
@@ -599,130 +741,62 @@ public class FlagQuizService {
         return new String(Character.toChars(c1)) + new String(Character.toChars(c2));
     }
 
-    private static String flagImageUrl(String iso2) {
-        // Verlässlich: flagcdn.com, ISO2 lower-case, größere Auflösung
-        String c = iso2.toLowerCase(java.util.Locale.ROOT);
-        return "https://flagcdn.com/w1024/" + c + ".png";
-    }
-
-    private static Map<String, String> buildAliasMap() {
-        Map<String, String> m = new HashMap<>();
-        // USA / Vereinigtes Königreich / etc.
-        m.put("usa", "US");
-        m.put("u s a", "US");
-        m.put("united states", "US");
-        m.put("vereinigte staaten", "US");
-        m.put("vereinigte staaten von amerika", "US");
-        m.put("america", "US");
-        m.put("amerika", "US");
-
-        m.put("uk", "GB");
-        m.put("u k", "GB");
-        m.put("united kingdom", "GB");
-        m.put("great britain", "GB");
-        m.put("grossbritannien", "GB");
-        m.put("großbritannien", "GB");
-        m.put("england", "GB"); // toleriert oft
-
-        m.put("south korea", "KR");
-        m.put("sudkorea", "KR");
-        m.put("südkorea", "KR");
-        m.put("north korea", "KP");
-        m.put("nordkorea", "KP");
-
-        m.put("russia", "RU");
-        m.put("russland", "RU");
-
-        m.put("czechia", "CZ");
-        m.put("tschechien", "CZ");
-
-        m.put("the netherlands", "NL");
-        m.put("niederlande", "NL");
-        m.put("holland", "NL");
-
-        m.put("ivory coast", "CI");
-        m.put("cote d ivoire", "CI");
-
-        m.put("vatican", "VA");
-        m.put("vatikan", "VA");
-
-        m.put("cape verde", "CV");
-        m.put("kap verde", "CV");
-
-        m.put("u a e", "AE");
-        m.put("uae", "AE");
-        m.put("vereinigte arabische emirate", "AE");
-        m.put("united arab emirates", "AE");
-
-        m.put("dr congo", "CD");
-        m.put("demokratische republik kongo", "CD");
-        m.put("republic of the congo", "CG");
-        m.put("kongo", "CG");
-
-        m.put("laos", "LA");
-        m.put("myanmar", "MM");
-        m.put("burma", "MM");
-
-        m.put("timor leste", "TL");
-        m.put("osttimor", "TL");
-
-        return m;
-    }
-
+    // nach einem Sieg, unter synchronized(ps): nur die Regeln der geänderten Werte prüfen
     private static void checkAchievements(PlayerStats ps, MessageChannel channel, User user) {
-        int[] thresholds = {5, 10, 25, 50};
-        for (int t : thresholds) {
-            String key = "streak-" + t;
-            if (ps.currentStreak >= t && ps.achievements.add(key)) {
-                channel.sendMessage(EmojiUtil.wrap("🏅") + "Achievement freigeschaltet für " + user.getAsMention() + ": " + t + "-er Streak!")
-                        .queue(m -> m.delete().queueAfter(30, TimeUnit.SECONDS, s -> {}, f -> {}));
-            }
+        List<FlagAchievements.Achievement> unlocked = new ArrayList<>();
+        unlocked.addAll(FlagAchievements.evaluate(ps, FlagAchievements.Stat.CURRENT_STREAK, ps.currentStreak));
+        unlocked.addAll(FlagAchievements.evaluate(ps, FlagAchievements.Stat.CORRECT, ps.correct));
+        unlocked.addAll(FlagAchievements.evaluate(ps, FlagAchievements.Stat.TOTAL_POINTS, ps.totalPoints));
+        for (FlagAchievements.Achievement a : unlocked) {
+            channel.sendMessage(EmojiUtil.wrap("🏅") + "Achievement freigeschaltet für " + user.getAsMention() + ": " + a.message())
+                    .queue(m -> m.delete().queueAfter(30, TimeUnit.SECONDS, s -> {}, f -> {}));
         }
     }
 
     // ---- Leaderboards / Streaks ----
 
     public static String leaderboardText(String guildId, JDA jda, int limit) {
-        Map<String, PlayerStats> map = gd(guildId).statsByUser;
-        List<Map.Entry<String, PlayerStats>> top = map.entrySet().stream()
-                .sorted((a,b) -> Integer.compare(b.getValue().totalPoints, a.getValue().totalPoints))
-                .limit(limit)
-                .toList();
+        GuildData g = gd(guildId);
         StringBuilder sb = new StringBuilder();
         int rank = 1;
-        for (var e : top) {
-            String userId = e.getKey();
-            PlayerStats ps = e.getValue();
-            User u = jda.getUserById(userId);
-            String name = u != null ? u.getName() : ("<" + userId + ">");
+        for (RankingIndex.Entry e : g.pointsRanking.top(limit)) {
+            User u = jda.getUserById(e.userId());
+            String name = u != null ? u.getName() : ("<" + e.userId() + ">");
             sb.append("#").append(rank++).append(" ").append(name)
-                    .append(" — ").append(ps.totalPoints).append(" Punkte").append("\n");
+                    .append(" — ").append(e.score()).append(" Punkte").append("\n");
         }
         if (sb.isEmpty()) sb.append("Noch keine Einträge.");
         return sb.toString();
     }
 
     public static String streaksText(String guildId, JDA jda, int limit) {
-        Map<String, PlayerStats> map = gd(guildId).statsByUser;
-        List<Map.Entry<String, PlayerStats>> top = map.entrySet().stream()
-                .sorted((a,b) -> Integer.compare(b.getValue().currentStreak, a.getValue().currentStreak))
-                .limit(limit)
-                .toList();
+        GuildData g = gd(guildId);
         StringBuilder sb = new StringBuilder();
         int rank = 1;
-        for (var e : top) {
-            String userId = e.getKey();
-            PlayerStats ps = e.getValue();
-            User u = jda.getUserById(userId);
-            String name = u != null ? u.getName() : ("<" + userId + ">");
+        for (RankingIndex.Entry e : g.streakRanking.top(limit)) {
+            PlayerStats ps = g.statsByUser.get(e.userId());
+            int best = ps != null ? ps.bestStreak : e.score();
+            User u = jda.getUserById(e.userId());
+            String name = u != null ? u.getName() : ("<" + e.userId() + ">");
             sb.append("#").append(rank++).append(" ").append(name)
-                    .append(" — Streak ").append(ps.currentStreak)
-                    .append(" (Best: ").append(ps.bestStreak).append(")\n");
+                    .append(" — Streak ").append(e.score())
+                    .append(" (Best: ").append(best).append(")\n");
         }
         if (sb.isEmpty()) sb.append("Noch keine Einträge.");
         return sb.toString();
     }
 
+    /**
+     * @return Platz im Punkte-Leaderboard (1 = bester) oder 0, wenn der Spieler noch nicht gespielt hat
+     */
+    public static int pointsRank(String guildId, String userId) {
+        return gd(guildId).pointsRanking.rank(userId);
+    }
+
+    public static int playerCount(String guildId) {
+        return gd(guildId).pointsRanking.size();
+    }
+
     public static PlayerStats getPlayerStatsPublic(String guildId, String userId) {
         return stats(guildId, userId);
     }
@@ -732,19 +806,8 @@ public class FlagQuizService {
     }
 
     public static Optional<String> resolveToCode(String userInput) {
-        String norm = normalize(userInput);
-        if (norm.length() == 2) {
-            String up = norm.toUpperCase(Locale.ROOT);
-            if (ISO_CODES.contains(up)) return Optional.of(up);
-        }
-        // Alias direkt
-        if (ALIAS_TO_CODE.containsKey(norm)) return Optional.of(ALIAS_TO_CODE.get(norm));
-        // Namen de/en durchgehen
-        for (String iso : ISO_CODES) {
-            String de = normalize(countryName(iso, Locale.GERMAN));
-            String en = normalize(countryName(iso, Locale.ENGLISH));
-            if (norm.equals(de) || norm.equals(en)) return Optional.of(iso);
-        }
-        return Optional.empty();
+        String code = FlagAnswerIndex.lookup(userInput);
+        if (code == null) code = FlagAnswerIndex.fuzzyLookup(userInput);
+        return Optional.ofNullable(code);
     }
 }
@@ -4,9 +4,11 @@ import dev.eministar.command.Command;
 import dev.eministar.config.Config;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
 import net.dv8tion.jda.api.interactions.commands.SlashCommandInteraction;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
 import dev.eministar.util.EmojiUtil;
 
 public class FlagSetupCommand implements Command {
@@ -14,7 +16,7 @@ public class FlagSetupCommand implements Command {
     public String name() { return "flagsetup"; }
 
     @Override
-    public String description() { return "Setzt den Flaggenquiz-Kanal und erstellt das Dashboard (Admin)"; }
+    public String description() { return "Setzt den Flaggenquiz-Kanal und erstellt das Dashboard (Admin, optional: Schwierigkeit)"; }
 
     @Override
     public void execute(MessageReceivedEvent event, String[] args) {
@@ -27,9 +29,18 @@ public class FlagSetupCommand implements Command {
             channel.sendMessage(EmojiUtil.wrap("❌") + "Du benötigst die Berechtigung 'Server verwalten'.").queue();
             return;
         }
+        FlagQuestionSelector.Difficulty difficulty = null;
+        if (args.length > 0) {
+            difficulty = FlagQuestionSelector.Difficulty.parse(args[0]);
+            if (difficulty == null) {
+                channel.sendMessage(EmojiUtil.wrap("❌") + "Unbekannte Schwierigkeit. Erlaubt: gemischt, leicht, mittel, schwer").queue();
+                return;
+            }
+        }
         // aktuellen Kanal binden
         FlagQuizService.setQuizChannel(guild.getId(), channel.getId());
-        channel.sendMessage(EmojiUtil.wrap("✅") + "Flaggenquiz ist nun in diesem Kanal aktiv.").queue(m -> m.delete().queueAfter(10, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
+        if (difficulty != null) FlagQuizService.setDifficulty(guild.getId(), difficulty);
+        channel.sendMessage(EmojiUtil.wrap("✅") + "Flaggenquiz ist nun in diesem Kanal aktiv (Schwierigkeit: " + FlagQuizService.getDifficulty(guild.getId()).label + ").").queue(m -> m.delete().queueAfter(10, java.util.concurrent.TimeUnit.SECONDS, s -> {}, f -> {}));
         // Dashboard erzeugen/aktualisieren
         if (channel instanceof net.dv8tion.jda.api.entities.channel.concrete.TextChannel tc) {
             FlagQuizService.tryEnsureDashboardMessage(guild.getId(), tc);
@@ -37,7 +48,14 @@ public class FlagSetupCommand implements Command {
     }
 
     @Override
-    public CommandData getSlashCommandData() { return Commands.slash(name(), description()); }
+    public CommandData getSlashCommandData() {
+        return Commands.slash(name(), description())
+                .addOptions(new OptionData(OptionType.STRING, "schwierigkeit", "Welche Flaggen bevorzugt gestellt werden", false)
+                        .addChoice("gemischt", "gemischt")
+                        .addChoice("leicht", "leicht")
+                        .addChoice("mittel", "mittel")
+                        .addChoice("schwer", "schwer"));
+    }
 
     @Override
     public void executeSlash(SlashCommandInteraction event) {
@@ -51,9 +69,13 @@ public class FlagSetupCommand implements Command {
             return;
         }
         FlagQuizService.setQuizChannel(guild.getId(), channel.getId());
+        if (event.getOption("schwierigkeit") != null) {
+            var difficulty = FlagQuestionSelector.Difficulty.parse(event.getOption("schwierigkeit").getAsString());
+            if (difficulty != null) FlagQuizService.setDifficulty(guild.getId(), difficulty);
+        }
         if (channel instanceof net.dv8tion.jda.api.entities.channel.concrete.TextChannel tc) {
             FlagQuizService.tryEnsureDashboardMessage(guild.getId(), tc);
         }
-        event.reply(EmojiUtil.wrap("✅") + "Flaggenquiz ist nun in diesem Kanal aktiv. Dashboard erstellt/aktualisiert.").setEphemeral(true).queue();
+        event.reply(EmojiUtil.wrap("✅") + "Flaggenquiz ist nun in diesem Kanal aktiv (Schwierigkeit: " + FlagQuizService.getDifficulty(guild.getId()).label + "). Dashboard erstellt/aktualisiert.").setEphemeral(true).queue();
     }
 }
@@ -0,0 +1,142 @@
+package dev.eministar.modules.flags;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tippfehler-tolerante Suche über alle normalisierten Ländernamen und Aliase.
+ * Die Namen liegen in einem Trie; die Suche simuliert einen Levenshtein-Automaten (mit Vertauschungen,
+ * "Kolumbein" -> "Kolumbien" kostet 1) Zeile für Zeile entlang des Tries und schneidet jeden Ast ab,
+ * sobald keine Zeile mehr unter der erlaubten Distanz liegt. So wird nur ein kleiner Teil des Tries besucht.
+ */
+public final class FuzzyNameMatcher {
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        String code; // != null wenn hier ein Name endet
+    }
+
+    private final Node root;
+    private final int maxDepth;
+    private final ThreadLocal<int[][]> rows;
+
+    FuzzyNameMatcher(Map<String, String> normalizedNameToCode, int maxInput) {
+        // Kinder sortiert aufbauen, danach in Arrays einfrieren
+        Map<String, String> sorted = new TreeMap<>(normalizedNameToCode);
+        this.root = new Node();
+        int depth = 0;
+        for (Map.Entry<String, String> e : sorted.entrySet()) {
+            insert(e.getKey(), e.getValue());
+            depth = Math.max(depth, e.getKey().length());
+        }
+        this.maxDepth = depth;
+        this.rows = ThreadLocal.withInitial(() -> new int[maxDepth + 1][maxInput + 1]);
+    }
+
+    private void insert(String key, String code) {
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            int idx = Arrays.binarySearch(node.labels, c);
+            if (idx < 0) {
+                int at = -idx - 1;
+                node.labels = insertAt(node.labels, at, c);
+                Node[] children = new Node[node.children.length + 1];
+                System.arraycopy(node.children, 0, children, 0, at);
+                children[at] = new Node();
+                System.arraycopy(node.children, at, children, at + 1, node.children.length - at);
+                node.children = children;
+                idx = at;
+            }
+            node = node.children[idx];
+        }
+        if (node.code == null) node.code = code;
+    }
+
+    private static char[] insertAt(char[] array, int at, char c) {
+        char[] out = new char[array.length + 1];
+        System.arraycopy(array, 0, out, 0, at);
+        out[at] = c;
+        System.arraycopy(array, at, out, at + 1, array.length - at);
+        return out;
+    }
+
+    /**
+     * Erlaubte Distanz abhängig von der Wortlänge: kurze Namen müssen exakt sein.
+     */
+    public static int maxDistanceFor(int length) {
+        if (length <= 4) return 0;
+        if (length <= 8) return 1;
+        return 2;
+    }
+
+    /**
+     * Sucht den nächsten Namen zur bereits normalisierten Eingabe input[0..len).
+     * @return ISO-Code des eindeutig nächsten Namens oder null (nichts in Reichweite oder mehrdeutig)
+     */
+    String find(char[] input, int len) {
+        int maxDist = maxDistanceFor(len);
+        if (maxDist == 0 || len == 0) return null;
+        int[][] r = rows.get();
+        for (int j = 0; j <= len; j++) r[0][j] = j;
+
+        Search search = new Search(input, len, maxDist, r);
+        Node[] children = root.children;
+        for (int i = 0; i < children.length; i++) {
+            search.visit(children[i], root.labels[i], (char) 0, 1);
+        }
+        return search.ambiguous ? null : search.bestCode;
+    }
+
+    private final class Search {
+        final char[] input;
+        final int len;
+        final int maxDist;
+        final int[][] r;
+        int bestDist = Integer.MAX_VALUE;
+        String bestCode;
+        boolean ambiguous;
+
+        Search(char[] input, int len, int maxDist, int[][] r) {
+            this.input = input;
+            this.len = len;
+            this.maxDist = maxDist;
+            this.r = r;
+        }
+
+        void visit(Node node, char c, char parentChar, int d) {
+            int[] row = r[d];
+            int[] prev = r[d - 1];
+            row[0] = d;
+            int rowMin = d;
+            for (int j = 1; j <= len; j++) {
+                int cost = input[j - 1] == c ? 0 : 1;
+                int v = Math.min(Math.min(prev[j] + 1, row[j - 1] + 1), prev[j - 1] + cost);
+                // Vertauschung zweier Nachbarbuchstaben
+                if (d > 1 && j > 1 && input[j - 1] == parentChar && input[j - 2] == c) {
+                    v = Math.min(v, r[d - 2][j - 2] + 1);
+                }
+                row[j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+
+            if (node.code != null && row[len] <= maxDist) {
+                int dist = row[len];
+                if (dist < bestDist) {
+                    bestDist = dist;
+                    bestCode = node.code;
+                    ambiguous = false;
+                } else if (dist == bestDist && !node.code.equals(bestCode)) {
+                    ambiguous = true;
+                }
+            }
+
+            if (rowMin > maxDist || d >= maxDepth) return;
+            Node[] children = node.children;
+            for (int i = 0; i < children.length; i++) {
+                visit(children[i], node.labels[i], c, d + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.eministar.modules.flags;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed Timing Wheel für die Timeouts der Quizrunden.
+ * Einplanen hängt nur an eine lock-freie Queue an und Abbrechen setzt nur ein Flag, so streiten sich viele
+ * Quiz-Kanäle, die gleichzeitig Runden starten und beantworten, nie um ein gemeinsames Heap-Lock
+ * (anders als beim ScheduledThreadPoolExecutor).
+ * Ein Ticker-Thread sortiert neue Timeouts in ihren Bucket ein und gibt abgelaufene an einen kleinen Worker-Pool.
+ */
+public class RoundTimer {
+    private static final Logger logger = LoggerFactory.getLogger(RoundTimer.class);
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return true, wenn der Timeout abgebrochen wurde, bevor er ausgelöst hat
+         */
+        public boolean cancel() {
+            return cancelled.compareAndSet(false, true);
+        }
+
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
+    private final long tickMillis;
+    private final ArrayDeque<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private final ExecutorService workers = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "flagquiz-round-worker-" + workerIds.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+    private final long startNanos = System.nanoTime();
+    private long tick = 0;
+
+    @SuppressWarnings("unchecked")
+    public RoundTimer(long tickMillis, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1)) << 1;
+        this.tickMillis = tickMillis;
+        this.wheel = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) wheel[i] = new ArrayDeque<>();
+        this.mask = size - 1;
+
+        Thread ticker = new Thread(this::run, "flagquiz-round-timer");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long deadline = elapsedMillis() + unit.toMillis(delay);
+        Timeout timeout = new Timeout(task, deadline);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long nextTickAt = (tick + 1) * tickMillis;
+            long sleep = nextTickAt - elapsedMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            tick++;
+            transferIncoming();
+            expire(wheel[(int) (tick & mask)]);
+        }
+    }
+
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.isCancelled()) continue;
+            long ticks = Math.max(tick, timeout.deadline / tickMillis);
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.isCancelled()) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                it.remove();
+                if (timeout.cancelled.compareAndSet(false, true)) {
+                    workers.execute(() -> {
+                        try {
+                            timeout.task.run();
+                        } catch (Exception e) {
+                            logger.error("FlagQuiz: Timeout-Task fehlgeschlagen", e);
+                        }
+                    });
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+}
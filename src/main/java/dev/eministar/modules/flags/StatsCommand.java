@@ -33,10 +33,18 @@ public class StatsCommand implements Command {
         eb.setTitle(EmojiUtil.wrap("📊") + " Deine Flaggen-Stats");
         eb.setDescription("Punkte: **" + ps.totalPoints + "**\n" +
                 "Richtig: **" + ps.correct + "** • Falsch: **" + ps.wrong + "**\n" +
-                "Streak: **" + ps.currentStreak + "** (Best: " + ps.bestStreak + ")");
+                "Streak: **" + ps.currentStreak + "** (Best: " + ps.bestStreak + ")\n" +
+                "Achievements: **" + FlagAchievements.count(ps.achievementBits) + "**" +
+                rankLine(guild.getId(), userId));
         event.getChannel().sendMessageEmbeds(eb.build()).queue();
     }
 
+    private static String rankLine(String guildId, String userId) {
+        int rank = FlagQuizService.pointsRank(guildId, userId);
+        if (rank == 0) return "";
+        return "\nPlatz: **#" + rank + "** von " + FlagQuizService.playerCount(guildId);
+    }
+
     @Override
     public CommandData getSlashCommandData() {
         return Commands.slash(name(), description())
@@ -61,7 +69,9 @@ public class StatsCommand implements Command {
         eb.setTitle(EmojiUtil.wrap("📊") + " Stats von " + username);
         eb.setDescription("Punkte: **" + ps.totalPoints + "**\n" +
                 "Richtig: **" + ps.correct + "** • Falsch: **" + ps.wrong + "**\n" +
-                "Streak: **" + ps.currentStreak + "** (Best: " + ps.bestStreak + ")");
+                "Streak: **" + ps.currentStreak + "** (Best: " + ps.bestStreak + ")\n" +
+                "Achievements: **" + FlagAchievements.count(ps.achievementBits) + "**" +
+                rankLine(guild.getId(), userId));
         event.replyEmbeds(eb.build()).queue();
     }
 }
@@ -3,6 +3,7 @@ package dev.eministar.modules.giveaway;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import dev.eministar.util.SequenceService;
 
 import java.io.*;
 import java.lang.reflect.Type;
@@ -12,16 +13,16 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class GiveawayStore {
+    private static final String SEQUENCE = "giveaway";
     private final String filePath;
     private final Gson gson;
     private final Map<String, GiveawayData> giveaways;
-    private int sequence;
 
     public GiveawayStore(String filePath) {
         this.filePath = filePath;
+        SequenceService.seed(SEQUENCE, 1);
         this.gson = new GsonBuilder().setPrettyPrinting().create();
         this.giveaways = new ConcurrentHashMap<>();
-        this.sequence = 0;
         load();
     }
 
@@ -37,7 +38,8 @@ public class GiveawayStore {
             Type type = new TypeToken<StoreData>() {}.getType();
             StoreData data = gson.fromJson(reader, type);
             if (data != null) {
-                this.sequence = data.seq;
+                // alter Zähler aus der Datei, bevor es data/sequences.json gab
+                SequenceService.seed(SEQUENCE, data.seq + 1);
                 if (data.gaws != null) {
                     this.giveaways.putAll(data.gaws);
                 }
@@ -50,7 +52,7 @@ public class GiveawayStore {
     public synchronized void save() {
         try (Writer writer = new FileWriter(filePath)) {
             StoreData data = new StoreData();
-            data.seq = sequence;
+            data.seq = (int) Math.max(0, SequenceService.peek(SEQUENCE) - 1);
             data.gaws = new HashMap<>(giveaways);
             gson.toJson(data, writer);
         } catch (Exception e) {
@@ -58,12 +60,14 @@ public class GiveawayStore {
         }
     }
 
+    /**
+     * Format wie bisher (GA-JJJJMMTT-NNN), die laufende Nummer wird aber nicht mehr auf 1000 gekürzt,
+     * sonst kollidieren IDs am selben Tag. Ab 1000 wird die Nummer einfach vierstellig.
+     */
     public String generateId() {
-        sequence++;
-        save();
         return String.format("GA-%s-%03d",
                 Instant.now().toString().substring(0, 10).replace("-", ""),
-                sequence % 1000);
+                SequenceService.next(SEQUENCE));
     }
 
     public void put(String key, GiveawayData data) {
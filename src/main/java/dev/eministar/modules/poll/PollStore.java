@@ -3,6 +3,7 @@ package dev.eministar.modules.poll;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import dev.eministar.util.SequenceService;
 
 import java.io.*;
 import java.lang.reflect.Type;
@@ -12,16 +13,16 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class PollStore {
+    private static final String SEQUENCE = "poll";
     private final String filePath;
     private final Gson gson;
     private final Map<String, PollData> polls;
-    private int sequence;
 
     public PollStore(String filePath) {
         this.filePath = filePath;
+        SequenceService.seed(SEQUENCE, 1);
         this.gson = new GsonBuilder().setPrettyPrinting().create();
         this.polls = new ConcurrentHashMap<>();
-        this.sequence = 0;
         load();
     }
 
@@ -37,7 +38,8 @@ public class PollStore {
             Type type = new TypeToken<StoreData>() {}.getType();
             StoreData data = gson.fromJson(reader, type);
             if (data != null) {
-                this.sequence = data.seq;
+                // alter Zähler aus der Datei, bevor es data/sequences.json gab
+                SequenceService.seed(SEQUENCE, data.seq + 1);
                 if (data.polls != null) {
                     this.polls.putAll(data.polls);
                 }
@@ -50,7 +52,7 @@ public class PollStore {
     public synchronized void save() {
         try (Writer writer = new FileWriter(filePath)) {
             StoreData data = new StoreData();
-            data.seq = sequence;
+            data.seq = (int) Math.max(0, SequenceService.peek(SEQUENCE) - 1);
             data.polls = new HashMap<>(polls);
             gson.toJson(data, writer);
         } catch (Exception e) {
@@ -58,12 +60,14 @@ public class PollStore {
         }
     }
 
+    /**
+     * Format wie bisher (P-JJJJMMTT-NNN), die laufende Nummer wird aber nicht mehr auf 1000 gekürzt,
+     * sonst kollidieren IDs am selben Tag. Ab 1000 wird die Nummer einfach vierstellig.
+     */
     public String generateId() {
-        sequence++;
-        save();
         return String.format("P-%s-%03d",
                 Instant.now().toString().substring(0, 10).replace("-", ""),
-                sequence % 1000);
+                SequenceService.next(SEQUENCE));
     }
 
     public void put(String key, PollData data) {
@@ -49,9 +49,11 @@ public class SuggestionCommand implements Command {
                                 .addChoice("Warten", "pending")
                                 .addChoice("Info", "info")
                                 .addChoice("Statistik", "stats")
-                                .addChoice("Top", "top"),
+                                .addChoice("Top", "top")
+                                .addChoice("Suche", "search"),
                         new OptionData(OptionType.STRING, "id", "Vorschlag-ID (z.B. SUG-1001)", false),
-                        new OptionData(OptionType.STRING, "antwort", "Antwort an den User (optional)", false)
+                        new OptionData(OptionType.STRING, "antwort", "Antwort an den User (optional)", false),
+                        new OptionData(OptionType.STRING, "suche", "Suchbegriff(e) für die Suche", false)
                 );
     }
 
@@ -87,6 +89,7 @@ public class SuggestionCommand implements Command {
             case "info" -> handleInfo(event);
             case "stats" -> handleStats(event);
             case "top" -> handleTop(event);
+            case "search" -> handleSearch(event);
             default -> event.reply(EmojiUtil.wrap("❌") + " Unbekannte Aktion!").setEphemeral(true).queue();
         }
     }
@@ -337,5 +340,40 @@ public class SuggestionCommand implements Command {
 
         event.replyEmbeds(embed.build()).setEphemeral(true).queue();
     }
-}
 
+    private void handleSearch(SlashCommandInteraction event) {
+        var queryOption = event.getOption("suche");
+        if (queryOption == null || queryOption.getAsString().isBlank()) {
+            event.reply(EmojiUtil.wrap("❌") + " Bitte gib einen Suchbegriff an (Option `suche`)!")
+                    .setEphemeral(true).queue();
+            return;
+        }
+
+        String query = queryOption.getAsString();
+        List<Suggestion> results = SuggestionService.search(event.getGuild().getId(), query, 10);
+
+        EmbedBuilder embed = new EmbedBuilder();
+        embed.setTitle(EmojiUtil.wrap("🔎") + " Vorschlag-Suche: " + (query.length() > 100 ? query.substring(0, 100) + "…" : query));
+
+        if (results.isEmpty()) {
+            embed.setDescription(EmojiUtil.wrap("🤷") + " Keine Vorschläge gefunden.");
+        } else {
+            StringBuilder description = new StringBuilder();
+            for (Suggestion s : results) {
+                description.append("**").append(s.getSuggestionId()).append("** · ").append(s.getStatus().getFormatted())
+                        .append(" · Score: ").append(s.getVoteScore()).append("\n");
+                String preview = s.getContent().length() > 120
+                        ? s.getContent().substring(0, 120) + "..."
+                        : s.getContent();
+                description.append("   *").append(preview.replace("\n", " ")).append("*\n\n");
+            }
+            embed.setDescription(description.toString());
+        }
+
+        embed.setFooter("Treffer: " + results.size(), null);
+        embed.setColor(new Color(0x5865F2));
+        embed.setTimestamp(Instant.now());
+
+        event.replyEmbeds(embed.build()).setEphemeral(true).queue();
+    }
+}
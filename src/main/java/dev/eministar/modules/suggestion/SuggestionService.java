@@ -3,6 +3,8 @@ package dev.eministar.modules.suggestion;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import dev.eministar.util.SearchIndex;
+import dev.eministar.util.SequenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,14 +18,20 @@ import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Vorschläge pro Guild in data/suggestions.json; Inhalt und Team-Antwort stehen zusätzlich in einem
+ * {@link SearchIndex} für {@code /suggestion search}.
+ */
 public class SuggestionService {
     private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
     private static final Path DATA_FILE = Paths.get("data/suggestions.json");
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
     private static final Map<String, Map<String, Suggestion>> suggestions = new ConcurrentHashMap<>();
-    private static int suggestionCounter = 1000;
+    private static final String SEQUENCE = "suggestion";
+    private static final SearchIndex SEARCH = new SearchIndex(Paths.get("data/suggestions.idx"));
 
     static {
+        SequenceService.seed(SEQUENCE, 1000);
         loadSuggestions();
     }
 
@@ -40,7 +48,7 @@ public class SuggestionService {
                 Map<String, Map<String, Suggestion>> loaded = gson.fromJson(reader, type);
                 if (loaded != null) {
                     suggestions.putAll(loaded);
-                    // Find highest suggestion ID
+                    // Find highest suggestion ID - falls sequences.json fehlt oder älter ist
                     suggestions.values().stream()
                             .flatMap(map -> map.values().stream())
                             .map(Suggestion::getSuggestionId)
@@ -48,7 +56,12 @@ public class SuggestionService {
                             .map(id -> id.substring(4))
                             .mapToInt(Integer::parseInt)
                             .max()
-                            .ifPresent(max -> suggestionCounter = max + 1);
+                            .ifPresent(max -> SequenceService.seed(SEQUENCE, max + 1));
+                    // Index mit der Datei abgleichen (z.B. Absturz vor dem Flush) - unveränderte Texte sind No-ops
+                    suggestions.forEach((guildId, map) -> {
+                        map.values().forEach(SuggestionService::indexText);
+                        SEARCH.retain(guildId, map.keySet());
+                    });
                 }
             }
             logger.info("Loaded {} guilds with suggestions", suggestions.size());
@@ -68,12 +81,13 @@ public class SuggestionService {
         }
     }
 
-    public static synchronized Suggestion createSuggestion(String guildId, String userId, String content) {
-        String suggestionId = "SUG-" + String.format("%04d", suggestionCounter++);
+    public static Suggestion createSuggestion(String guildId, String userId, String content) {
+        String suggestionId = "SUG-" + String.format("%04d", SequenceService.next(SEQUENCE));
         Suggestion suggestion = new Suggestion(suggestionId, guildId, userId, content);
 
         suggestions.computeIfAbsent(guildId, k -> new ConcurrentHashMap<>())
                 .put(suggestionId, suggestion);
+        indexText(suggestion);
 
         saveSuggestions();
         logger.info("Created suggestion {} in guild {}", suggestionId, guildId);
@@ -122,13 +136,35 @@ public class SuggestionService {
     public static void updateSuggestion(Suggestion suggestion) {
         suggestions.computeIfAbsent(suggestion.getGuildId(), k -> new ConcurrentHashMap<>())
                 .put(suggestion.getSuggestionId(), suggestion);
+        indexText(suggestion);
         saveSuggestions();
     }
 
+    private static void indexText(Suggestion s) {
+        String text = s.getSuggestionId() + " " + s.getContent()
+                + (s.getAdminResponse() == null ? "" : " " + s.getAdminResponse());
+        SEARCH.put(s.getGuildId(), s.getSuggestionId(), text, s.getCreatedAt());
+    }
+
+    /**
+     * Volltextsuche über Inhalt und Team-Antwort - beste Treffer zuerst.
+     */
+    public static List<Suggestion> search(String guildId, String query, int limit) {
+        Map<String, Suggestion> guildSuggestions = suggestions.get(guildId);
+        if (guildSuggestions == null) return List.of();
+        List<Suggestion> out = new ArrayList<>(limit);
+        for (SearchIndex.Hit hit : SEARCH.search(guildId, query, limit)) {
+            Suggestion s = guildSuggestions.get(hit.docId());
+            if (s != null) out.add(s);
+        }
+        return out;
+    }
+
     public static void deleteSuggestion(String guildId, String suggestionId) {
         Map<String, Suggestion> guildSuggestions = suggestions.get(guildId);
         if (guildSuggestions != null) {
             guildSuggestions.remove(suggestionId);
+            SEARCH.remove(guildId, suggestionId);
             saveSuggestions();
             logger.info("Deleted suggestion {} from guild {}", suggestionId, guildId);
         }
@@ -1,6 +1,7 @@
 package dev.eministar.modules.ticket;
 
 import dev.eministar.command.Command;
+import dev.eministar.util.RankingIndex;
 import dev.eministar.util.EmojiUtil;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.Permission;
@@ -15,7 +16,6 @@ import net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu;
 import java.awt.Color;
 import java.time.Instant;
 import java.util.List;
-import java.util.Map;
 
 public class TicketCommand implements Command {
 
@@ -60,6 +60,7 @@ public class TicketCommand implements Command {
             case "unclaim" -> handleUnclaim(event);
             case "rename" -> handleRename(event);
             case "leaderboard" -> handleLeaderboard(event);
+            case "search" -> handleSearch(event);
             default -> event.reply(EmojiUtil.wrap("❌") + " Unbekannter Befehl!").setEphemeral(true).queue();
         }
     }
@@ -85,7 +86,7 @@ public class TicketCommand implements Command {
         String guildId = event.getGuild().getId();
         int todayCount = TicketService.getTicketsClosedToday(guildId);
         int alltimeCount = TicketService.getTicketsClosedAllTime(guildId);
-        int openCount = TicketService.getOpenTickets(guildId).size();
+        int openCount = TicketService.getOpenTicketCount(guildId);
         long avgTime = TicketService.getAverageCloseTimeMinutes(guildId);
 
         event.deferReply(true).queue(hook -> {
@@ -145,9 +146,9 @@ public class TicketCommand implements Command {
 
         int todayCount = TicketService.getTicketsClosedToday(guildId);
         int alltimeCount = TicketService.getTicketsClosedAllTime(guildId);
-        int openCount = TicketService.getOpenTickets(guildId).size();
+        int openCount = TicketService.getOpenTicketCount(guildId);
         long avgTime = TicketService.getAverageCloseTimeMinutes(guildId);
-        int totalTickets = TicketService.getAllTickets(guildId).size();
+        int totalTickets = TicketService.getTicketCount(guildId);
 
         // Personal stats for the user
         String userId = event.getUser().getId();
@@ -363,7 +364,7 @@ public class TicketCommand implements Command {
 
         EmbedBuilder embed = new EmbedBuilder();
         embed.setTitle(EmojiUtil.wrap("🔒") + " Ticket geschlossen");
-        embed.setDescription("Dieses Ticket wird in 5 Sekunden gelöscht.\n\n" +
+        embed.setDescription("Dieses Ticket wird in 5 Sekunden archiviert und gelöscht.\n\n" +
                 "**Geschlossen von:** " + event.getUser().getAsMention());
         embed.setColor(new Color(0xED4245));
         embed.setTimestamp(Instant.now());
@@ -372,7 +373,7 @@ public class TicketCommand implements Command {
             new Thread(() -> {
                 try {
                     Thread.sleep(5000);
-                    event.getChannel().delete().queue();
+                    TicketTranscripts.archiveAndDelete(event.getChannel().asTextChannel(), ticket);
                 } catch (Exception ignored) {}
             }).start();
         });
@@ -476,29 +477,51 @@ public class TicketCommand implements Command {
         );
     }
 
-    private void handleLeaderboard(SlashCommandInteraction event) {
-        String guildId = event.getGuild().getId();
-        List<Ticket> allTickets = TicketService.getAllTickets(guildId);
+    private void handleSearch(SlashCommandInteraction event) {
+        if (event.getMember() == null || !event.getMember().hasPermission(Permission.MANAGE_CHANNEL)) {
+            event.reply(EmojiUtil.wrap("❌") + " Du benötigst die Berechtigung Kanäle zu verwalten!").setEphemeral(true).queue();
+            return;
+        }
 
-        // Count closed tickets per claimer
-        Map<String, Integer> claimerCounts = new java.util.HashMap<>();
-        for (Ticket t : allTickets) {
-            if (t.getStatus() == Ticket.TicketStatus.CLOSED && t.getClaimedBy() != null) {
-                claimerCounts.merge(t.getClaimedBy(), 1, Integer::sum);
+        var queryOpt = event.getOption("begriff");
+        String query = queryOpt == null ? "" : queryOpt.getAsString();
+        List<Ticket> results = TicketService.search(event.getGuild().getId(), query, 10);
+
+        EmbedBuilder embed = new EmbedBuilder();
+        embed.setTitle(EmojiUtil.wrap("🔎") + " Ticket-Suche: " + (query.length() > 100 ? query.substring(0, 100) + "…" : query));
+        embed.setColor(new Color(0x5865F2));
+
+        if (results.isEmpty()) {
+            embed.setDescription(EmojiUtil.wrap("🤷") + " Keine Tickets gefunden.");
+        } else {
+            StringBuilder desc = new StringBuilder();
+            for (Ticket ticket : results) {
+                String reason = ticket.getReason() == null ? "-" : ticket.getReason().replace("\n", " ");
+                if (reason.length() > 120) reason = reason.substring(0, 120) + "…";
+                desc.append("**").append(ticket.getTicketId()).append("** • ").append(formatStatus(ticket.getStatus()))
+                        .append(" • <t:").append(ticket.getCreatedAt() / 1000).append(":d>\n");
+                desc.append("└ <@").append(ticket.getUserId()).append("> | ").append(ticket.getCategory().getFormattedName()).append("\n");
+                desc.append("└ ").append(reason).append("\n\n");
             }
+            embed.setDescription(desc.toString());
         }
 
-        if (claimerCounts.isEmpty()) {
+        embed.setFooter("Treffer: " + results.size(), null);
+        embed.setTimestamp(Instant.now());
+
+        event.replyEmbeds(embed.build()).setEphemeral(true).queue();
+    }
+
+    private void handleLeaderboard(SlashCommandInteraction event) {
+        String guildId = event.getGuild().getId();
+        // Top 10 aus der laufenden Rangliste, absteigend
+        List<RankingIndex.Entry> sorted = TicketService.getTopClaimers(guildId, 10);
+
+        if (sorted.isEmpty()) {
             event.reply(EmojiUtil.wrap("📊") + " Noch keine Ticket-Statistiken vorhanden!").setEphemeral(true).queue();
             return;
         }
 
-        // Sort by count descending
-        List<Map.Entry<String, Integer>> sorted = claimerCounts.entrySet().stream()
-                .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                .limit(10)
-                .toList();
-
         EmbedBuilder embed = new EmbedBuilder();
         embed.setTitle(EmojiUtil.wrap("🏆") + " Ticket-Leaderboard");
         embed.setColor(new Color(0xFFD700));
@@ -508,15 +531,15 @@ public class TicketCommand implements Command {
         desc.append("━━━━━━━━━━━━━━━━━━━━\n\n");
 
         int rank = 1;
-        for (Map.Entry<String, Integer> entry : sorted) {
+        for (RankingIndex.Entry entry : sorted) {
             String medal = switch (rank) {
                 case 1 -> "🥇";
                 case 2 -> "🥈";
                 case 3 -> "🥉";
                 default -> "**#" + rank + "**";
             };
-            desc.append(medal).append(" <@").append(entry.getKey()).append("> — **")
-                    .append(entry.getValue()).append("** Tickets\n");
+            desc.append(medal).append(" <@").append(entry.userId()).append("> — **")
+                    .append(entry.score()).append("** Tickets\n");
             rank++;
         }
 
@@ -572,7 +595,9 @@ public class TicketCommand implements Command {
                         new SubcommandData("unclaim", "Gib das aktuelle Ticket wieder frei"),
                         new SubcommandData("rename", "Benenne den Ticket-Kanal um")
                                 .addOption(OptionType.STRING, "name", "Neuer Name", true),
-                        new SubcommandData("leaderboard", "Zeige Top Ticket-Bearbeiter")
+                        new SubcommandData("leaderboard", "Zeige Top Ticket-Bearbeiter"),
+                        new SubcommandData("search", "Durchsuche Tickets nach Grund und Notizen")
+                                .addOption(OptionType.STRING, "begriff", "Suchbegriff(e)", true)
                 );
     }
 }
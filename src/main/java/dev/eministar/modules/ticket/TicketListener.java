@@ -43,10 +43,7 @@ public class TicketListener extends ListenerAdapter {
         }
 
         // Check if user already has an open ticket
-        List<Ticket> userTickets = TicketService.getUserTickets(event.getGuild().getId(), event.getUser().getId());
-        long openTickets = userTickets.stream()
-                .filter(t -> t.getStatus() != Ticket.TicketStatus.CLOSED)
-                .count();
+        int openTickets = TicketService.getOpenUserTickets(event.getGuild().getId(), event.getUser().getId()).size();
 
         if (openTickets >= 3) {
             event.reply(EmojiUtil.wrap("❌") + " Du hast bereits 3 offene Tickets! Bitte schließe erst ein Ticket, bevor du ein neues erstellst.")
@@ -425,31 +422,8 @@ public class TicketListener extends ListenerAdapter {
                     Thread.sleep(5000);
                     logTicketClose(event.getGuild(), event.getUser(), ticket);
 
-                    // Transcript als einfache Zusammenfassung in den Log-Kanal
-                    String logChannelId = Config.getTicketLogChannelId();
-                    if (logChannelId != null && !logChannelId.isEmpty()) {
-                        TextChannel logChannel = event.getGuild().getTextChannelById(logChannelId);
-                        if (logChannel != null) {
-                            StringBuilder transcript = new StringBuilder();
-                            transcript.append("Ticket-ID: ").append(ticket.getTicketId()).append("\n");
-                            transcript.append("User: ").append(ticket.getUserId()).append("\n");
-                            transcript.append("Kategorie: ").append(ticket.getCategory().name()).append("\n");
-                            transcript.append("Grund: ").append(ticket.getReason()).append("\n");
-                            transcript.append("Priorität: ").append(ticket.getPriority()).append("\n");
-                            if (!ticket.getNotes().isEmpty()) {
-                                transcript.append("Notizen:\n");
-                                for (Ticket.TicketNote note : ticket.getNotes()) {
-                                    transcript.append(" - [").append(note.getTimestamp()).append("] ")
-                                            .append(note.getAuthorId()).append(": ")
-                                            .append(note.getContent()).append("\n");
-                                }
-                            }
-                            logChannel.sendMessage(EmojiUtil.wrap("📄") + " Transcript von " + ticket.getTicketId() + "\n```\n" + transcript + "```")
-                                    .queue();
-                        }
-                    }
-
-                    event.getChannel().asTextChannel().delete().queue();
+                    // kompletter Verlauf als Datei in den Log-Kanal, danach wird der Kanal gelöscht
+                    TicketTranscripts.archiveAndDelete(event.getChannel().asTextChannel(), ticket);
                 } catch (Exception e) {
                     logger.error("Error closing ticket channel", e);
                 }
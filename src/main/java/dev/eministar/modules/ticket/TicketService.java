@@ -1,6 +1,9 @@
 package dev.eministar.modules.ticket;
 
 import com.google.gson.*;
+import dev.eministar.util.RankingIndex;
+import dev.eministar.util.SearchIndex;
+import dev.eministar.util.SequenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,17 +15,108 @@ import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Persistent ticket store. Besides guildId -> ticketId -> Ticket every guild keeps secondary indexes
+ * (channel -> ticket, user -> tickets, user -> open tickets, status -> tickets) so the lookups on the hot path - every
+ * message and button in a ticket channel - don't depend on how many closed tickets piled up.
+ * Tickets are mutated in place by the callers, so the indexes remember what they last saw per ticket
+ * and are corrected in {@link #updateTicket}. The same step keeps the guild's {@link TicketStats} rollup
+ * up to date, which is stored alongside the tickets and answers the stats/leaderboard queries.
+ * Reasons and notes are additionally kept in a {@link SearchIndex} for {@code /ticket search}.
+ */
 public class TicketService {
     private static final Logger logger = LoggerFactory.getLogger(TicketService.class);
     private static final Path DATA_PATH = Paths.get("data/tickets.json");
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final SearchIndex SEARCH = new SearchIndex(Paths.get("data/tickets.idx"));
 
-    private static final Map<String, Map<String, Ticket>> tickets = new ConcurrentHashMap<>();
-    // guildId -> ticketId -> Ticket
+    private static final Map<String, GuildTickets> tickets = new ConcurrentHashMap<>();
+    // guildId -> GuildTickets
 
-    private static int ticketCounter = 1000;
+    // Stand eines Tickets zum Zeitpunkt der letzten Indexierung
+    private record Indexed(String channelId, String userId, Ticket.TicketStatus status, String claimedBy, long closedAt) {
+    }
+
+    private static final class GuildTickets {
+        final Map<String, Ticket> byId = new ConcurrentHashMap<>();
+        final Map<String, String> byChannel = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> byUser = new ConcurrentHashMap<>();
+        final Map<String, Set<String>> openByUser = new ConcurrentHashMap<>();
+        final Map<Ticket.TicketStatus, Set<String>> byStatus = new EnumMap<>(Ticket.TicketStatus.class);
+        private final Map<String, Indexed> indexed = new HashMap<>();
+        TicketStats stats = new TicketStats();
+
+        GuildTickets() {
+            for (Ticket.TicketStatus status : Ticket.TicketStatus.values()) {
+                byStatus.put(status, ConcurrentHashMap.newKeySet());
+            }
+        }
+
+        synchronized void put(Ticket ticket, boolean countStats) {
+            String id = ticket.getTicketId();
+            byId.put(id, ticket);
+            Indexed now = new Indexed(ticket.getChannelId(), ticket.getUserId(), ticket.getStatus(),
+                    ticket.getClaimedBy(), ticket.getClosedAt());
+            Indexed before = indexed.put(id, now);
+            if (now.equals(before)) return;
+
+            if (countStats) {
+                // alten Stand austragen, neuen eintragen - deckt Schließen, Wiedereröffnen und Umschreiben ab
+                if (before != null && before.status() == Ticket.TicketStatus.CLOSED) {
+                    stats.apply(before.claimedBy(), ticket.getCreatedAt(), before.closedAt(), -1);
+                }
+                if (now.status() == Ticket.TicketStatus.CLOSED) {
+                    stats.apply(now.claimedBy(), ticket.getCreatedAt(), now.closedAt(), +1);
+                }
+            }
+
+            if (before != null) {
+                if (before.channelId() != null) byChannel.remove(before.channelId(), id);
+                if (before.status() != null) byStatus.get(before.status()).remove(id);
+                if (isOpen(before.status())) removeFrom(openByUser, before.userId(), id);
+                removeFrom(byUser, before.userId(), id);
+            }
+            if (now.channelId() != null) byChannel.put(now.channelId(), id);
+            if (now.status() != null) byStatus.get(now.status()).add(id);
+            if (isOpen(now.status())) openByUser.computeIfAbsent(now.userId(), k -> ConcurrentHashMap.newKeySet()).add(id);
+            if (now.userId() != null) byUser.computeIfAbsent(now.userId(), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+
+        private static void removeFrom(Map<String, Set<String>> index, String userId, String id) {
+            if (userId == null) return;
+            Set<String> ids = index.get(userId);
+            if (ids == null) return;
+            ids.remove(id);
+            if (ids.isEmpty()) index.remove(userId);
+        }
+
+        List<Ticket> resolve(Collection<String> ids) {
+            List<Ticket> out = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                Ticket t = byId.get(id);
+                if (t != null) out.add(t);
+            }
+            return out;
+        }
+    }
+
+    private static boolean isOpen(Ticket.TicketStatus status) {
+        return status == Ticket.TicketStatus.OPEN || status == Ticket.TicketStatus.CLAIMED;
+    }
+
+    private static Collection<Ticket> ticketsOf(String guildId) {
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? List.of() : g.byId.values();
+    }
+
+    private static GuildTickets guild(String guildId) {
+        return tickets.computeIfAbsent(guildId, k -> new GuildTickets());
+    }
+
+    private static final String SEQUENCE = "ticket";
 
     static {
+        SequenceService.seed(SEQUENCE, 1000);
         load();
     }
 
@@ -38,22 +132,33 @@ public class TicketService {
                 JsonObject root = GSON.fromJson(r, JsonObject.class);
                 if (root == null) return;
 
+                // alter Zähler aus tickets.json, bevor es data/sequences.json gab
                 if (root.has("ticketCounter")) {
-                    ticketCounter = root.get("ticketCounter").getAsInt();
+                    SequenceService.seed(SEQUENCE, root.get("ticketCounter").getAsLong());
                 }
 
+                JsonObject statsObj = root.has("stats") ? root.getAsJsonObject("stats") : new JsonObject();
                 if (root.has("tickets")) {
                     JsonObject ticketsObj = root.getAsJsonObject("tickets");
                     for (Map.Entry<String, JsonElement> guildEntry : ticketsObj.entrySet()) {
                         String guildId = guildEntry.getKey();
                         JsonObject guildTickets = guildEntry.getValue().getAsJsonObject();
 
-                        Map<String, Ticket> guildMap = new ConcurrentHashMap<>();
+                        GuildTickets guildMap = new GuildTickets();
+                        // ohne gespeicherte Statistik (ältere Datei) einmalig aus den Tickets aufbauen
+                        boolean hasStats = statsObj.has(guildId);
+                        if (hasStats) {
+                            guildMap.stats = GSON.fromJson(statsObj.get(guildId), TicketStats.class);
+                            guildMap.stats.afterLoad();
+                        }
                         for (Map.Entry<String, JsonElement> ticketEntry : guildTickets.entrySet()) {
                             Ticket ticket = GSON.fromJson(ticketEntry.getValue(), Ticket.class);
-                            guildMap.put(ticketEntry.getKey(), ticket);
+                            guildMap.put(ticket, !hasStats);
                         }
                         tickets.put(guildId, guildMap);
+                        // Index mit der Datei abgleichen (z.B. Absturz vor dem Flush) - unveränderte Texte sind No-ops
+                        guildMap.byId.values().forEach(TicketService::indexText);
+                        SEARCH.retain(guildId, guildMap.byId.keySet());
                     }
                 }
             }
@@ -65,18 +170,28 @@ public class TicketService {
     private static void save() {
         try {
             JsonObject root = new JsonObject();
-            root.addProperty("ticketCounter", ticketCounter);
+            // nur noch zur Info/Abwärtskompatibilität, maßgeblich ist SequenceService
+            root.addProperty("ticketCounter", SequenceService.peek(SEQUENCE));
 
             JsonObject ticketsObj = new JsonObject();
-            for (Map.Entry<String, Map<String, Ticket>> guildEntry : tickets.entrySet()) {
+            for (Map.Entry<String, GuildTickets> guildEntry : tickets.entrySet()) {
                 JsonObject guildTickets = new JsonObject();
-                for (Map.Entry<String, Ticket> ticketEntry : guildEntry.getValue().entrySet()) {
+                for (Map.Entry<String, Ticket> ticketEntry : guildEntry.getValue().byId.entrySet()) {
                     guildTickets.add(ticketEntry.getKey(), GSON.toJsonTree(ticketEntry.getValue()));
                 }
                 ticketsObj.add(guildEntry.getKey(), guildTickets);
             }
             root.add("tickets", ticketsObj);
 
+            JsonObject statsObj = new JsonObject();
+            for (Map.Entry<String, GuildTickets> guildEntry : tickets.entrySet()) {
+                TicketStats stats = guildEntry.getValue().stats;
+                synchronized (stats) {
+                    statsObj.add(guildEntry.getKey(), GSON.toJsonTree(stats));
+                }
+            }
+            root.add("stats", statsObj);
+
             try (Writer w = Files.newBufferedWriter(DATA_PATH, StandardCharsets.UTF_8)) {
                 GSON.toJson(root, w);
             }
@@ -86,119 +201,156 @@ public class TicketService {
     }
 
     public static String generateTicketId() {
-        return String.format("TICKET-%04d", ticketCounter++);
+        return String.format("TICKET-%04d", SequenceService.next(SEQUENCE));
     }
 
     public static Ticket createTicket(String guildId, String userId, TicketCategory category) {
         String ticketId = generateTicketId();
         Ticket ticket = new Ticket(ticketId, userId, guildId, category);
 
-        tickets.computeIfAbsent(guildId, k -> new ConcurrentHashMap<>()).put(ticketId, ticket);
+        guild(guildId).put(ticket, true);
+        indexText(ticket);
         save();
 
         return ticket;
     }
 
     public static Optional<Ticket> getTicket(String guildId, String ticketId) {
-        return Optional.ofNullable(tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).get(ticketId));
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? Optional.empty() : Optional.ofNullable(g.byId.get(ticketId));
     }
 
     public static Optional<Ticket> getTicketByChannel(String guildId, String channelId) {
-        return tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> channelId.equals(t.getChannelId()))
-                .findFirst();
+        GuildTickets g = tickets.get(guildId);
+        if (g == null || channelId == null) return Optional.empty();
+        String ticketId = g.byChannel.get(channelId);
+        return ticketId == null ? Optional.empty() : Optional.ofNullable(g.byId.get(ticketId));
     }
 
+    /**
+     * Speichert das (in place geänderte) Ticket und zieht die Indizes nach.
+     */
     public static void updateTicket(Ticket ticket) {
-        tickets.computeIfAbsent(ticket.getGuildId(), k -> new ConcurrentHashMap<>())
-                .put(ticket.getTicketId(), ticket);
+        guild(ticket.getGuildId()).put(ticket, true);
+        indexText(ticket);
         save();
     }
 
+    private static void indexText(Ticket ticket) {
+        StringBuilder text = new StringBuilder();
+        text.append(ticket.getTicketId()).append(' ').append(ticket.getCategory().name());
+        if (ticket.getReason() != null) text.append(' ').append(ticket.getReason());
+        for (Ticket.TicketNote note : ticket.getNotes()) {
+            text.append(' ').append(note.getContent());
+        }
+        SEARCH.put(ticket.getGuildId(), ticket.getTicketId(), text.toString(), ticket.getCreatedAt());
+    }
+
+    /**
+     * Volltextsuche über Grund, Notizen und ID - beste Treffer zuerst.
+     */
+    public static List<Ticket> search(String guildId, String query, int limit) {
+        GuildTickets g = tickets.get(guildId);
+        if (g == null) return List.of();
+        List<Ticket> out = new ArrayList<>(limit);
+        for (SearchIndex.Hit hit : SEARCH.search(guildId, query, limit)) {
+            Ticket t = g.byId.get(hit.docId());
+            if (t != null) out.add(t);
+        }
+        return out;
+    }
+
     public static List<Ticket> getOpenTickets(String guildId) {
-        return tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.OPEN || t.getStatus() == Ticket.TicketStatus.CLAIMED)
-                .toList();
+        GuildTickets g = tickets.get(guildId);
+        if (g == null) return List.of();
+        List<Ticket> out = g.resolve(g.byStatus.get(Ticket.TicketStatus.OPEN));
+        out.addAll(g.resolve(g.byStatus.get(Ticket.TicketStatus.CLAIMED)));
+        return out;
+    }
+
+    public static int getOpenTicketCount(String guildId) {
+        GuildTickets g = tickets.get(guildId);
+        if (g == null) return 0;
+        return g.byStatus.get(Ticket.TicketStatus.OPEN).size() + g.byStatus.get(Ticket.TicketStatus.CLAIMED).size();
+    }
+
+    /**
+     * Offene (OPEN/CLAIMED) Tickets eines Nutzers über den Index.
+     */
+    public static List<Ticket> getOpenUserTickets(String guildId, String userId) {
+        GuildTickets g = tickets.get(guildId);
+        if (g == null) return List.of();
+        Set<String> ids = g.openByUser.get(userId);
+        return ids == null ? List.of() : g.resolve(ids);
     }
 
     public static List<Ticket> getUserTickets(String guildId, String userId) {
-        return tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getUserId().equals(userId))
-                .toList();
+        GuildTickets g = tickets.get(guildId);
+        if (g == null) return List.of();
+        Set<String> ids = g.byUser.get(userId);
+        return ids == null ? List.of() : g.resolve(ids);
     }
 
     public static List<Ticket> getAllTickets(String guildId) {
-        return new ArrayList<>(tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values());
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? new ArrayList<>() : new ArrayList<>(g.byId.values());
+    }
+
+    public static int getTicketCount(String guildId) {
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? 0 : g.byId.size();
     }
 
     public static List<Ticket> getClosedTickets(String guildId) {
-        return tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.CLOSED)
-                .toList();
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? List.of() : g.resolve(g.byStatus.get(Ticket.TicketStatus.CLOSED));
+    }
+
+    private static TicketStats statsOf(String guildId) {
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? new TicketStats() : g.stats;
     }
 
     /**
      * Get count of tickets closed today
      */
     public static int getTicketsClosedToday(String guildId) {
-        long startOfDay = java.time.LocalDate.now(java.time.ZoneId.of("Europe/Berlin"))
-                .atStartOfDay(java.time.ZoneId.of("Europe/Berlin"))
-                .toInstant().toEpochMilli();
-
-        return (int) tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.CLOSED)
-                .filter(t -> t.getClosedAt() >= startOfDay)
-                .count();
+        return statsOf(guildId).closedOn(TicketStats.today());
     }
 
     /**
      * Get total count of all closed tickets (alltime)
      */
     public static int getTicketsClosedAllTime(String guildId) {
-        return (int) tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.CLOSED)
-                .count();
+        GuildTickets g = tickets.get(guildId);
+        return g == null ? 0 : g.byStatus.get(Ticket.TicketStatus.CLOSED).size();
     }
 
     /**
      * Get count of tickets claimed by a specific user today
      */
     public static int getTicketsClaimedTodayByUser(String guildId, String userId) {
-        long startOfDay = java.time.LocalDate.now(java.time.ZoneId.of("Europe/Berlin"))
-                .atStartOfDay(java.time.ZoneId.of("Europe/Berlin"))
-                .toInstant().toEpochMilli();
-
-        return (int) tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.CLOSED)
-                .filter(t -> userId.equals(t.getClaimedBy()))
-                .filter(t -> t.getClosedAt() >= startOfDay)
-                .count();
+        return statsOf(guildId).claimedOn(TicketStats.today(), userId);
     }
 
     /**
      * Get total count of tickets claimed by a specific user (alltime)
      */
     public static int getTicketsClaimedAllTimeByUser(String guildId, String userId) {
-        return (int) tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.CLOSED)
-                .filter(t -> userId.equals(t.getClaimedBy()))
-                .count();
+        return statsOf(guildId).claimedAllTime(userId);
     }
 
     /**
      * Get average ticket close time in minutes (alltime)
      */
     public static long getAverageCloseTimeMinutes(String guildId) {
-        var closedTickets = tickets.getOrDefault(guildId, new ConcurrentHashMap<>()).values().stream()
-                .filter(t -> t.getStatus() == Ticket.TicketStatus.CLOSED && t.getClosedAt() > 0)
-                .toList();
-
-        if (closedTickets.isEmpty()) return 0;
-
-        long totalMinutes = closedTickets.stream()
-                .mapToLong(t -> (t.getClosedAt() - t.getCreatedAt()) / (1000 * 60))
-                .sum();
+        return statsOf(guildId).averageCloseMinutes();
+    }
 
-        return totalMinutes / closedTickets.size();
+    /**
+     * Top-Bearbeiter nach geschlossenen Tickets (alltime), absteigend.
+     */
+    public static List<RankingIndex.Entry> getTopClaimers(String guildId, int limit) {
+        return statsOf(guildId).topClaimers(limit);
     }
 }
@@ -0,0 +1,109 @@
+package dev.eministar.modules.ticket;
+
+import dev.eministar.util.RankingIndex;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Laufende Ticket-Statistik einer Guild, wird beim Schließen (und falls ein geschlossenes Ticket wieder
+ * geöffnet oder umgeschrieben wird) inkrementell angepasst statt bei jeder Abfrage alle Tickets zu zählen.
+ * Tagesbuckets laufen nach Europe/Berlin; gespeichert wird das Ganze als "stats" in tickets.json.
+ */
+public class TicketStats {
+    static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+
+    public static class DayBucket {
+        public int closed;
+        public Map<String, Integer> byClaimer = new HashMap<>();
+    }
+
+    public long closeMinutesSum;
+    public long closeTimeCount;
+    public Map<String, Integer> closedByClaimer = new HashMap<>();
+    // epochDay (Europe/Berlin) -> Bucket
+    public TreeMap<Long, DayBucket> days = new TreeMap<>();
+
+    private transient RankingIndex ranking;
+
+    static long dayOf(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZONE).toEpochDay();
+    }
+
+    static long today() {
+        return LocalDate.now(ZONE).toEpochDay();
+    }
+
+    /**
+     * @param sign +1 beim Schließen, -1 wenn ein früher gezähltes Ticket nicht mehr (so) geschlossen ist
+     */
+    synchronized void apply(String claimedBy, long createdAt, long closedAt, int sign) {
+        // ohne closedAt (ältere Tickets) kein Tagesbucket - sonst landet alles auf dem 01.01.1970
+        if (closedAt > 0) {
+            long epochDay = dayOf(closedAt);
+            DayBucket day = days.computeIfAbsent(epochDay, k -> new DayBucket());
+            day.closed += sign;
+            if (claimedBy != null && day.byClaimer.merge(claimedBy, sign, Integer::sum) == 0) {
+                day.byClaimer.remove(claimedBy);
+            }
+            if (day.closed <= 0 && day.byClaimer.isEmpty()) days.remove(epochDay);
+            closeMinutesSum += sign * ((closedAt - createdAt) / (1000 * 60));
+            closeTimeCount += sign;
+        }
+        if (claimedBy != null) {
+            int total = closedByClaimer.merge(claimedBy, sign, Integer::sum);
+            if (total <= 0) {
+                closedByClaimer.remove(claimedBy);
+                ranking().remove(claimedBy);
+            } else {
+                ranking().update(claimedBy, total);
+            }
+        }
+    }
+
+    synchronized int closedOn(long epochDay) {
+        DayBucket day = days.get(epochDay);
+        return day == null ? 0 : day.closed;
+    }
+
+    synchronized int claimedOn(long epochDay, String userId) {
+        DayBucket day = days.get(epochDay);
+        return day == null ? 0 : day.byClaimer.getOrDefault(userId, 0);
+    }
+
+    synchronized int claimedAllTime(String userId) {
+        return closedByClaimer.getOrDefault(userId, 0);
+    }
+
+    synchronized long averageCloseMinutes() {
+        return closeTimeCount <= 0 ? 0 : closeMinutesSum / closeTimeCount;
+    }
+
+    List<RankingIndex.Entry> topClaimers(int limit) {
+        return ranking().top(limit);
+    }
+
+    /**
+     * Nach dem Laden aus JSON: Altlast entfernen, frühere Versionen zählten Tickets ohne closedAt auf Tag 0.
+     */
+    synchronized void afterLoad() {
+        if (days == null) days = new TreeMap<>();
+        days.remove(0L);
+    }
+
+    private synchronized RankingIndex ranking() {
+        if (ranking == null) {
+            // nach dem Laden aus JSON
+            if (closedByClaimer == null) closedByClaimer = new HashMap<>();
+            if (days == null) days = new TreeMap<>();
+            ranking = new RankingIndex();
+            closedByClaimer.forEach(ranking::update);
+        }
+        return ranking;
+    }
+}
@@ -0,0 +1,187 @@
+package dev.eministar.modules.ticket;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import dev.eministar.config.Config;
+import dev.eministar.util.EmojiUtil;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Vollständige Transcripts geschlossener Tickets.
+ * Der Kanalverlauf wird mit {@code getIterableHistory} vom ersten Beitrag an in 100er-Seiten geholt und jede
+ * Nachricht sofort als JSON-Zeile in eine gzip-Datei unter data/transcripts/&lt;guildId&gt;/ geschrieben - ohne
+ * Cache in der Pagination, der Speicherbedarf ist also unabhängig von der Länge des Tickets.
+ * Erste Zeile: Ticket-Metadaten inkl. Notizen, danach eine Zeile pro Nachricht (alt nach neu).
+ */
+public class TicketTranscripts {
+    private static final Logger logger = LoggerFactory.getLogger(TicketTranscripts.class);
+    private static final Path BASE_DIR = Paths.get("data/transcripts");
+    private static final Gson GSON = new Gson();
+    // Upload-Limit für Bots ohne Boost
+    private static final long MAX_UPLOAD_BYTES = 10L * 1024 * 1024;
+
+    /**
+     * Schreibt den kompletten Verlauf von {@code channel}; das Future liefert die fertige Datei.
+     */
+    public static CompletableFuture<Path> write(TextChannel channel, Ticket ticket) {
+        Path target = BASE_DIR.resolve(ticket.getGuildId()).resolve(ticket.getTicketId() + ".jsonl.gz");
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Writer out;
+        try {
+            Files.createDirectories(target.getParent());
+            out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(tmp)), StandardCharsets.UTF_8));
+            writeLine(out, header(ticket));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        int[] count = {0};
+        CompletableFuture<Path> result = new CompletableFuture<>();
+        channel.getIterableHistory()
+                .reverse() // vom ältesten Beitrag an
+                .limit(100)
+                .cache(false)
+                .forEachAsync(msg -> {
+                    try {
+                        writeLine(out, toJson(msg));
+                        count[0]++;
+                        return true;
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .whenComplete((ignored, err) -> {
+                    try {
+                        out.close();
+                        if (err != null) {
+                            Files.deleteIfExists(tmp);
+                            result.completeExceptionally(err);
+                            return;
+                        }
+                        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        logger.info("Transcript für {} geschrieben ({} Nachrichten, {})", ticket.getTicketId(), count[0], target);
+                        result.complete(target);
+                    } catch (IOException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+        return result;
+    }
+
+    /**
+     * Schreibt das Transcript, hängt es im Log-Kanal an und löscht danach den Ticket-Kanal.
+     * Schlägt das Transcript fehl, bleibt der Kanal bestehen, damit nichts verloren geht.
+     */
+    public static void archiveAndDelete(TextChannel channel, Ticket ticket) {
+        write(channel, ticket).whenComplete((file, err) -> {
+            TextChannel logChannel = logChannel(channel);
+            if (err != null) {
+                logger.error("Transcript für {} fehlgeschlagen, Kanal bleibt bestehen", ticket.getTicketId(), err);
+                if (logChannel != null) {
+                    logChannel.sendMessage(EmojiUtil.wrap("⚠️") + " Transcript von " + ticket.getTicketId()
+                            + " fehlgeschlagen, Kanal " + channel.getAsMention() + " wurde nicht gelöscht.").queue();
+                }
+                return;
+            }
+            if (logChannel == null) {
+                channel.delete().queue();
+                return;
+            }
+            String text = EmojiUtil.wrap("📄") + " Transcript von " + ticket.getTicketId() + "\n```\n" + summary(ticket) + "```";
+            try {
+                if (Files.size(file) <= MAX_UPLOAD_BYTES) {
+                    logChannel.sendMessage(text)
+                            .addFiles(FileUpload.fromData(file.toFile(), file.getFileName().toString()))
+                            .queue(ok -> channel.delete().queue(), e -> channel.delete().queue());
+                    return;
+                }
+            } catch (IOException e) {
+                logger.warn("Transcript-Größe nicht lesbar: {}", e.getMessage());
+            }
+            logChannel.sendMessage(text + "(zu groß zum Hochladen, gespeichert unter `" + file + "`)")
+                    .queue(ok -> channel.delete().queue(), e -> channel.delete().queue());
+        });
+    }
+
+    private static TextChannel logChannel(TextChannel channel) {
+        String logChannelId = Config.getTicketLogChannelId();
+        if (logChannelId == null || logChannelId.isEmpty()) return null;
+        return channel.getGuild().getTextChannelById(logChannelId);
+    }
+
+    // kurze Zusammenfassung für die Log-Nachricht, der Rest steht in der Datei
+    private static String summary(Ticket ticket) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Ticket-ID: ").append(ticket.getTicketId()).append("\n");
+        sb.append("User: ").append(ticket.getUserId()).append("\n");
+        sb.append("Kategorie: ").append(ticket.getCategory().name()).append("\n");
+        sb.append("Priorität: ").append(ticket.getPriority()).append("\n");
+        sb.append("Notizen: ").append(ticket.getNotes().size()).append("\n");
+        String reason = ticket.getReason() == null ? "" : ticket.getReason().replace("```", "'''");
+        if (reason.length() > 1500) reason = reason.substring(0, 1500) + "…";
+        sb.append("Grund: ").append(reason).append("\n");
+        return sb.toString();
+    }
+
+    private static JsonObject header(Ticket ticket) {
+        JsonObject o = new JsonObject();
+        o.addProperty("type", "ticket");
+        o.addProperty("ticketId", ticket.getTicketId());
+        o.addProperty("guildId", ticket.getGuildId());
+        o.addProperty("userId", ticket.getUserId());
+        o.addProperty("channelId", ticket.getChannelId());
+        o.addProperty("category", ticket.getCategory().name());
+        o.addProperty("reason", ticket.getReason());
+        o.addProperty("priority", String.valueOf(ticket.getPriority()));
+        o.addProperty("claimedBy", ticket.getClaimedBy());
+        o.addProperty("createdAt", ticket.getCreatedAt());
+        o.addProperty("closedAt", ticket.getClosedAt());
+        o.add("notes", GSON.toJsonTree(ticket.getNotes()));
+        return o;
+    }
+
+    private static JsonObject toJson(Message msg) {
+        JsonObject o = new JsonObject();
+        o.addProperty("type", "message");
+        o.addProperty("id", msg.getId());
+        o.addProperty("timestamp", msg.getTimeCreated().toString());
+        o.addProperty("authorId", msg.getAuthor().getId());
+        o.addProperty("author", msg.getAuthor().getName());
+        o.addProperty("bot", msg.getAuthor().isBot());
+        o.addProperty("content", msg.getContentRaw());
+        if (msg.getTimeEdited() != null) o.addProperty("edited", msg.getTimeEdited().toString());
+        if (!msg.getAttachments().isEmpty()) {
+            JsonArray attachments = new JsonArray();
+            msg.getAttachments().forEach(a -> attachments.add(a.getUrl()));
+            o.add("attachments", attachments);
+        }
+        if (!msg.getEmbeds().isEmpty()) {
+            JsonArray embeds = new JsonArray();
+            msg.getEmbeds().forEach(e -> embeds.add(GSON.toJsonTree(e.toData().toMap())));
+            o.add("embeds", embeds);
+        }
+        return o;
+    }
+
+    private static void writeLine(Writer out, JsonObject line) throws IOException {
+        GSON.toJson(line, out);
+        out.write('\n');
+    }
+}
@@ -0,0 +1,173 @@
+package dev.eministar.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Rangliste als Order-Statistic-Treap (absteigend nach Wert, bei Gleichstand nach User-ID).
+ * Jeder Knoten kennt die Größe seines Teilbaums, dadurch kosten Wertänderungen und Rangabfragen O(log n)
+ * und die Top-k O(k + log n) - statt bei jedem Aufruf alle Einträge zu sortieren.
+ * Werte dürfen beliebig steigen und sinken; gehalten werden alle Einträge, nicht nur die besten K.
+ */
+public class RankingIndex {
+    public record Entry(String userId, int score) {
+    }
+
+    private static final class Node {
+        final String userId;
+        final int score;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(String userId, int score) {
+            this.userId = userId;
+            this.score = score;
+        }
+    }
+
+    private Node root;
+    private final Map<String, Integer> scores = new HashMap<>();
+
+    public synchronized void update(String userId, int score) {
+        Integer old = scores.put(userId, score);
+        if (old != null) {
+            if (old == score) return;
+            root = erase(root, old, userId);
+        }
+        root = insert(root, new Node(userId, score));
+    }
+
+    public synchronized void remove(String userId) {
+        Integer old = scores.remove(userId);
+        if (old != null) root = erase(root, old, userId);
+    }
+
+    /**
+     * @return die besten {@code limit} Einträge, bester zuerst
+     */
+    public synchronized List<Entry> top(int limit) {
+        List<Entry> out = new ArrayList<>(Math.min(limit, size(root)));
+        collect(root, out, limit);
+        return out;
+    }
+
+    /**
+     * @return Rang (1 = bester) oder 0, wenn der Spieler nicht enthalten ist
+     */
+    public synchronized int rank(String userId) {
+        Integer score = scores.get(userId);
+        if (score == null) return 0;
+        int before = 0;
+        Node t = root;
+        while (t != null) {
+            int c = compare(score, userId, t);
+            if (c == 0) return before + size(t.left) + 1;
+            if (c < 0) {
+                t = t.left;
+            } else {
+                before += size(t.left) + 1;
+                t = t.right;
+            }
+        }
+        return 0;
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    public synchronized void clear() {
+        root = null;
+        scores.clear();
+    }
+
+    // ---- Treap ----
+
+    private static int compare(int score, String userId, Node n) {
+        if (score != n.score) return score > n.score ? -1 : 1;
+        return userId.compareTo(n.userId);
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static void pull(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) return n;
+        if (n.priority > t.priority) {
+            Node[] parts = split(t, n.score, n.userId);
+            n.left = parts[0];
+            n.right = parts[1];
+            pull(n);
+            return n;
+        }
+        if (compare(n.score, n.userId, t) < 0) {
+            t.left = insert(t.left, n);
+        } else {
+            t.right = insert(t.right, n);
+        }
+        pull(t);
+        return t;
+    }
+
+    // teilt in [vor Schlüssel, ab Schlüssel]
+    private static Node[] split(Node t, int score, String userId) {
+        if (t == null) return new Node[2];
+        if (compare(score, userId, t) > 0) {
+            Node[] parts = split(t.right, score, userId);
+            t.right = parts[0];
+            pull(t);
+            parts[0] = t;
+            return parts;
+        }
+        Node[] parts = split(t.left, score, userId);
+        t.left = parts[1];
+        pull(t);
+        parts[1] = t;
+        return parts;
+    }
+
+    // alle Schlüssel in a liegen vor denen in b
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            pull(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        pull(b);
+        return b;
+    }
+
+    private static Node erase(Node t, int score, String userId) {
+        if (t == null) return null;
+        int c = compare(score, userId, t);
+        if (c == 0) return merge(t.left, t.right);
+        if (c < 0) {
+            t.left = erase(t.left, score, userId);
+        } else {
+            t.right = erase(t.right, score, userId);
+        }
+        pull(t);
+        return t;
+    }
+
+    private static void collect(Node t, List<Entry> out, int limit) {
+        if (t == null || out.size() >= limit) return;
+        collect(t.left, out, limit);
+        if (out.size() >= limit) return;
+        out.add(new Entry(t.userId, t.score));
+        collect(t.right, out, limit);
+    }
+}
@@ -0,0 +1,363 @@
+package dev.eministar.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kleiner invertierter Volltextindex (BM25) mit eigener Segmentdatei.
+ * Dokumente gehören zu einem Scope (i.d.R. die Guild-ID) und werden bei jeder Änderung mit {@link #put}
+ * komplett ersetzt - die alten Postings sind über die gemerkten Terme des Dokuments direkt auffindbar.
+ * Tokens werden klein geschrieben und gefaltet (ä → ae, ß → ss, é → e), damit "Übersetzung" auch
+ * "uebersetzung" findet; Suchbegriffe ab 3 Zeichen treffen zusätzlich als Präfix.
+ * Die Segmentdatei (Varints, Doc-Tabelle + Postings) wird höchstens alle paar Sekunden geschrieben.
+ * Jedes Dokument speichert einen Hash seines Texts: Beim Start einfach alles erneut mit {@link #put} abgleichen
+ * und mit {@link #retain} Gelöschtes entfernen - nur tatsächlich geänderte Dokumente werden neu indiziert.
+ */
+public class SearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final int MAGIC = 0x4C534958; // "LSIX"
+    private static final int VERSION = 3; // 2: Text-Hash pro Dokument, 3: Hash als 64-Bit-Digest
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_TERMS = 50;
+    private static final Set<String> STOPWORDS = Set.of(
+            "der", "die", "das", "und", "oder", "ein", "eine", "einen", "ist", "nicht", "ich", "du", "es", "zu",
+            "mit", "im", "in", "auf", "fuer", "von", "den", "dem", "des", "sich", "wir", "ihr", "sie", "er", "bitte",
+            "the", "and", "or", "an", "is", "to", "of");
+
+    private static final List<SearchIndex> instances = new CopyOnWriteArrayList<>();
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-index-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        flusher.scheduleWithFixedDelay(() -> instances.forEach(SearchIndex::flush), 5, 5, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> instances.forEach(SearchIndex::flush), "search-index-shutdown"));
+    }
+
+    public record Hit(String docId, double score) {
+    }
+
+    private static final class Doc {
+        final int length;
+        final long timestamp;
+        final String[] terms; // eindeutige Terme, für das Entfernen
+        final long textHash; // erkennt beim Neuindizieren unveränderte Texte, auch nach dem Laden
+
+        Doc(int length, long timestamp, String[] terms, long textHash) {
+            this.length = length;
+            this.timestamp = timestamp;
+            this.terms = terms;
+            this.textHash = textHash;
+        }
+    }
+
+    private static final class Scope {
+        final Map<String, Doc> docs = new HashMap<>();
+        final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+        long totalLength;
+    }
+
+    private final Path file;
+    private final Map<String, Scope> scopes = new HashMap<>();
+    private boolean dirty;
+
+    public SearchIndex(Path file) {
+        this.file = file;
+        load();
+        instances.add(this);
+    }
+
+    /**
+     * Fügt ein Dokument ein oder ersetzt es. Unveränderter Text (z.B. nur Votes geändert) ist ein No-op.
+     */
+    public synchronized void put(String scopeId, String docId, String text, long timestamp) {
+        Scope scope = scopes.computeIfAbsent(scopeId, k -> new Scope());
+        long textHash = digest(text);
+        Doc existing = scope.docs.get(docId);
+        if (existing != null && existing.textHash == textHash && existing.timestamp == timestamp) return;
+        removeDoc(scope, docId);
+        List<String> tokens = tokenize(text);
+        Map<String, Integer> tf = new HashMap<>();
+        for (String t : tokens) tf.merge(t, 1, Integer::sum);
+        tf.forEach((term, count) -> scope.postings.computeIfAbsent(term, k -> new HashMap<>(4)).put(docId, count));
+        scope.docs.put(docId, new Doc(tokens.size(), timestamp, tf.keySet().toArray(new String[0]), textHash));
+        scope.totalLength += tokens.size();
+        dirty = true;
+    }
+
+    public synchronized void remove(String scopeId, String docId) {
+        Scope scope = scopes.get(scopeId);
+        if (scope != null && removeDoc(scope, docId)) dirty = true;
+    }
+
+    /**
+     * Entfernt alle Dokumente des Scopes, die nicht in {@code docIds} stehen.
+     */
+    public synchronized void retain(String scopeId, Collection<String> docIds) {
+        Scope scope = scopes.get(scopeId);
+        if (scope == null) return;
+        Set<String> keep = docIds instanceof Set<String> set ? set : new HashSet<>(docIds);
+        for (String docId : new ArrayList<>(scope.docs.keySet())) {
+            if (!keep.contains(docId) && removeDoc(scope, docId)) dirty = true;
+        }
+    }
+
+    public synchronized int size(String scopeId) {
+        Scope scope = scopes.get(scopeId);
+        return scope == null ? 0 : scope.docs.size();
+    }
+
+    public synchronized void clear() {
+        scopes.clear();
+        dirty = true;
+    }
+
+    /**
+     * Bestes zuerst (BM25), bei Gleichstand das neuere Dokument.
+     */
+    public synchronized List<Hit> search(String scopeId, String query, int limit) {
+        Scope scope = scopes.get(scopeId);
+        if (scope == null || scope.docs.isEmpty() || limit <= 0) return List.of();
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) return List.of();
+
+        int n = scope.docs.size();
+        double avgLength = Math.max(1.0, (double) scope.totalLength / n);
+        Map<String, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            Map<String, Integer> exact = scope.postings.get(term);
+            if (exact != null) accumulate(scope, exact, n, avgLength, 1.0, scores);
+            if (term.length() < 3) continue;
+            int expanded = 0;
+            for (var e : scope.postings.subMap(term, false, term + Character.MAX_VALUE, true).entrySet()) {
+                if (++expanded > MAX_PREFIX_TERMS) break;
+                accumulate(scope, e.getValue(), n, avgLength, PREFIX_WEIGHT, scores);
+            }
+        }
+
+        // Top-k per Heap statt alle Treffer zu sortieren; Kopf ist der schlechteste behaltene Treffer
+        Comparator<Hit> better = Comparator.comparingDouble(Hit::score)
+                .thenComparingLong(h -> scope.docs.get(h.docId()).timestamp);
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, better);
+        scores.forEach((docId, score) -> {
+            Hit hit = new Hit(docId, score);
+            if (top.size() < limit) {
+                top.add(hit);
+            } else if (better.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        });
+        List<Hit> out = new ArrayList<>(top);
+        out.sort(better.reversed());
+        return out;
+    }
+
+    private static void accumulate(Scope scope, Map<String, Integer> postings, int n, double avgLength,
+                                   double weight, Map<String, Double> scores) {
+        int df = postings.size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        postings.forEach((docId, tf) -> {
+            Doc doc = scope.docs.get(docId);
+            double norm = tf * (K1 + 1) / (tf + K1 * (1 - B + B * doc.length / avgLength));
+            scores.merge(docId, weight * idf * norm, Double::sum);
+        });
+    }
+
+    private static boolean removeDoc(Scope scope, String docId) {
+        Doc old = scope.docs.remove(docId);
+        if (old == null) return false;
+        for (String term : old.terms) {
+            Map<String, Integer> p = scope.postings.get(term);
+            if (p == null) continue;
+            p.remove(docId);
+            if (p.isEmpty()) scope.postings.remove(term);
+        }
+        scope.totalLength -= old.length;
+        return true;
+    }
+
+    /**
+     * Kleinschreibung und Faltung für deutschen Text, Trennung an allem außer Buchstaben/Ziffern.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        String s = text.toLowerCase(Locale.GERMAN)
+                .replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss");
+        s = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        List<String> out = new ArrayList<>();
+        for (String t : s.split("[^\\p{L}\\p{N}]+")) {
+            if (t.length() < 2 || STOPWORDS.contains(t)) continue;
+            out.add(t);
+        }
+        return out;
+    }
+
+    // Segmentdatei
+
+    public void flush() {
+        byte[] data;
+        synchronized (this) {
+            if (!dirty) return;
+            try {
+                data = serialize();
+            } catch (IOException e) {
+                logger.error("Failed to serialize search index {}", file, e);
+                return;
+            }
+            dirty = false;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, data);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to write search index {}", file, e);
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeVarInt(out, scopes.size());
+            for (var se : scopes.entrySet()) {
+                Scope scope = se.getValue();
+                out.writeUTF(se.getKey());
+                Map<String, Integer> ordinals = new HashMap<>(scope.docs.size() * 2);
+                writeVarInt(out, scope.docs.size());
+                for (var de : scope.docs.entrySet()) {
+                    ordinals.put(de.getKey(), ordinals.size());
+                    out.writeUTF(de.getKey());
+                    writeVarInt(out, de.getValue().length);
+                    out.writeLong(de.getValue().timestamp);
+                    out.writeLong(de.getValue().textHash);
+                }
+                writeVarInt(out, scope.postings.size());
+                for (var te : scope.postings.entrySet()) {
+                    out.writeUTF(te.getKey());
+                    int[][] postings = new int[te.getValue().size()][];
+                    int i = 0;
+                    for (var pe : te.getValue().entrySet()) {
+                        postings[i++] = new int[]{ordinals.get(pe.getKey()), pe.getValue()};
+                    }
+                    Arrays.sort(postings, Comparator.comparingInt(p -> p[0]));
+                    writeVarInt(out, postings.length);
+                    int last = 0;
+                    for (int[] p : postings) {
+                        writeVarInt(out, p[0] - last); // Delta der Doc-Nummer
+                        writeVarInt(out, p[1]);
+                        last = p[0];
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private synchronized void load() {
+        if (!Files.exists(file)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warn("Search index {} has an unknown format, rebuilding", file);
+                return;
+            }
+            int scopeCount = readVarInt(in);
+            for (int s = 0; s < scopeCount; s++) {
+                Scope scope = new Scope();
+                String scopeId = in.readUTF();
+                int docCount = readVarInt(in);
+                String[] ids = new String[docCount];
+                List<List<String>> docTerms = new ArrayList<>(docCount);
+                int[] lengths = new int[docCount];
+                long[] timestamps = new long[docCount];
+                long[] hashes = new long[docCount];
+                for (int d = 0; d < docCount; d++) {
+                    ids[d] = in.readUTF();
+                    lengths[d] = readVarInt(in);
+                    timestamps[d] = in.readLong();
+                    hashes[d] = in.readLong();
+                    docTerms.add(new ArrayList<>());
+                }
+                int termCount = readVarInt(in);
+                for (int t = 0; t < termCount; t++) {
+                    String term = in.readUTF();
+                    int postingCount = readVarInt(in);
+                    Map<String, Integer> p = new HashMap<>(Math.max(4, postingCount * 2));
+                    int doc = 0;
+                    for (int i = 0; i < postingCount; i++) {
+                        doc += readVarInt(in);
+                        p.put(ids[doc], readVarInt(in));
+                        docTerms.get(doc).add(term);
+                    }
+                    scope.postings.put(term, p);
+                }
+                for (int d = 0; d < docCount; d++) {
+                    scope.docs.put(ids[d], new Doc(lengths[d], timestamps[d], docTerms.get(d).toArray(new String[0]), hashes[d]));
+                    scope.totalLength += lengths[d];
+                }
+                scopes.put(scopeId, scope);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to read search index {}, rebuilding: {}", file, e.getMessage());
+            scopes.clear();
+        }
+    }
+
+    // 64 Bit aus SHA-1 - String.hashCode() kollidiert zu leicht, dann bliebe ein geänderter Text unbemerkt
+    static long digest(String text) {
+        if (text == null) return 0L;
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-1").digest(text.getBytes(StandardCharsets.UTF_8));
+            long h = 0;
+            for (int i = 0; i < 8; i++) h = (h << 8) | (sha[i] & 0xFF);
+            return h;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // SHA-1 ist in jeder JVM vorhanden
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,120 @@
+package dev.eministar.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fortlaufende IDs für Tickets, Vorschläge, Umfragen und Giveaways.
+ * Jede Sequenz zählt über einen {@link AtomicLong}; in data/sequences.json steht nur die Obergrenze des
+ * reservierten Blocks. Geschrieben wird also nur alle {@link #BLOCK_SIZE} IDs statt bei jeder Vergabe.
+ * Nach einem Neustart geht es an der gespeicherten Grenze weiter - ungenutzte IDs des letzten Blocks
+ * werden übersprungen, doppelt vergeben wird nie.
+ */
+public class SequenceService {
+    private static final Logger logger = LoggerFactory.getLogger(SequenceService.class);
+    private static Path dataFile = Paths.get("data/sequences.json");
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    static final int BLOCK_SIZE = 32;
+
+    private static final class Sequence {
+        final AtomicLong next;
+        // erste nicht mehr reservierte ID; nur unter dem Klassen-Lock erhöht
+        volatile long limit;
+
+        Sequence(long start) {
+            this.next = new AtomicLong(start);
+            this.limit = start;
+        }
+    }
+
+    private static final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    static {
+        load();
+    }
+
+    private static void load() {
+        if (!Files.exists(dataFile)) return;
+        try (Reader reader = Files.newBufferedReader(dataFile, StandardCharsets.UTF_8)) {
+            Type type = new TypeToken<Map<String, Long>>(){}.getType();
+            Map<String, Long> loaded = gson.fromJson(reader, type);
+            if (loaded != null) loaded.forEach((name, limit) -> sequences.put(name, new Sequence(limit)));
+        } catch (Exception e) {
+            logger.error("Failed to load sequences", e);
+        }
+    }
+
+    /**
+     * Verwirft alle Zähler und lädt neu aus {@code file} - simuliert für Tests einen Neustart.
+     */
+    static synchronized void reload(Path file) {
+        dataFile = file;
+        sequences.clear();
+        load();
+    }
+
+    /**
+     * Stellt sicher, dass {@code name} frühestens bei {@code floor} weiterzählt - für Zähler aus älteren
+     * Dateien, die vor dieser Klasse eigene Zähler gespeichert haben.
+     */
+    public static void seed(String name, long floor) {
+        Sequence seq = sequences.computeIfAbsent(name, k -> new Sequence(floor));
+        seq.next.accumulateAndGet(floor, Math::max);
+    }
+
+    /**
+     * Nächste ID der Sequenz, threadsicher und ohne Lücken innerhalb eines Laufs.
+     */
+    public static long next(String name) {
+        Sequence seq = sequences.computeIfAbsent(name, k -> new Sequence(0));
+        long id = seq.next.getAndIncrement();
+        if (id >= seq.limit) reserve(seq, id);
+        return id;
+    }
+
+    /**
+     * Aktueller Stand (nächste zu vergebende ID), z.B. um alte Zählerfelder weiter mitzuschreiben.
+     */
+    public static long peek(String name) {
+        Sequence seq = sequences.get(name);
+        return seq == null ? 0 : seq.next.get();
+    }
+
+    private static synchronized void reserve(Sequence seq, long id) {
+        if (id < seq.limit) return; // ein anderer Thread hat schon reserviert
+        seq.limit = id + BLOCK_SIZE;
+        save();
+    }
+
+    private static void save() {
+        Map<String, Long> out = new TreeMap<>();
+        sequences.forEach((name, seq) -> out.put(name, seq.limit));
+        Path tmp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(dataFile.getParent());
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                gson.toJson(out, writer);
+            }
+            Files.move(tmp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to save sequences", e);
+        }
+    }
+}
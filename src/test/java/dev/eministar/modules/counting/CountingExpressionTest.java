@@ -0,0 +1,83 @@
+package dev.eministar.modules.counting;
+
+import org.junit.jupiter.api.Test;
+
+import static dev.eministar.modules.counting.CountingExpression.INVALID;
+import static dev.eministar.modules.counting.CountingExpression.NOT_AN_EXPRESSION;
+import static dev.eministar.modules.counting.CountingExpression.evaluate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CountingExpressionTest {
+    private static final String ALL = CountingExpression.ALL_OPERATORS;
+
+    @Test
+    void plainNumbers() {
+        assertEquals(42, evaluate("42"));
+        assertEquals(42, evaluate("  42 \n"));
+        assertEquals(-7, evaluate("-7"));
+    }
+
+    @Test
+    void precedence() {
+        assertEquals(14, evaluate("2+3*4"));
+        assertEquals(20, evaluate("(2+3)*4"));
+        assertEquals(5, evaluate("10-3-2"));
+        assertEquals(2, evaluate("20/5/2"));
+        assertEquals(1, evaluate("7 % 3"));
+        // ^ ist rechtsassoziativ und bindet stärker als das unäre Minus
+        assertEquals(512, evaluate("2^3^2"));
+        assertEquals(-4, evaluate("-2^2"));
+        assertEquals(4, evaluate("(-2)^2"));
+        assertEquals(12, evaluate("3×4"));
+        assertEquals(12, evaluate("3·4"));
+        assertEquals(3, evaluate("12÷4"));
+    }
+
+    @Test
+    void overflowAndDivisionByZeroAreInvalid() {
+        assertEquals(INVALID, evaluate("9223372036854775807+1"));
+        assertEquals(INVALID, evaluate("9223372036854775808"));
+        assertEquals(INVALID, evaluate("2^63"));
+        assertEquals(INVALID, evaluate("3037000500*3037000500"));
+        assertEquals(INVALID, evaluate("5/0"));
+        assertEquals(INVALID, evaluate("5%0"));
+        assertEquals(INVALID, evaluate("2^-1"));
+        assertEquals(Long.MAX_VALUE, evaluate("9223372036854775807"));
+    }
+
+    @Test
+    void chatIsNotAnExpression() {
+        assertEquals(NOT_AN_EXPRESSION, evaluate("hallo"));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("12 Äpfel"));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("12:30"));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("(1+2"));
+        assertEquals(NOT_AN_EXPRESSION, evaluate(""));
+        assertEquals(NOT_AN_EXPRESSION, evaluate(null));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("1+".repeat(40) + "1"));
+    }
+
+    @Test
+    void disallowedOperatorIsNotAnExpression() {
+        assertEquals(NOT_AN_EXPRESSION, evaluate("2*3", "+-", 10));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("-3", "+*", 10));
+        assertEquals(5, evaluate("2+3", "+-", 10));
+    }
+
+    @Test
+    void otherBases() {
+        assertEquals(5, evaluate("101", ALL, 2));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("102", ALL, 2));
+        assertEquals(255, evaluate("FF", ALL, 16));
+        assertEquals(36 * 36 - 1, evaluate("ZZ", ALL, 36));
+        assertEquals(11, evaluate("A+1", ALL, 36));
+    }
+
+    @Test
+    void lowercaseWordsAreNotBase36Numbers() {
+        assertEquals(NOT_AN_EXPRESSION, evaluate("hallo", ALL, 36));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("test", ALL, 36));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("Hallo", ALL, 36));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("ff", ALL, 16));
+        assertEquals(NOT_AN_EXPRESSION, evaluate("1a", ALL, 16));
+    }
+}
@@ -0,0 +1,75 @@
+package dev.eministar.modules.flags;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlagQuestionSelectorTest {
+    private static final int SAMPLES = 200_000;
+
+    private static FlagQuizService.FlagStats stats(int asked, int correct, int wrong) {
+        FlagQuizService.FlagStats fs = new FlagQuizService.FlagStats();
+        fs.asked = asked;
+        fs.correct = correct;
+        fs.wrong = wrong;
+        return fs;
+    }
+
+    private static Map<String, Integer> sample(FlagQuestionSelector selector) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SAMPLES; i++) counts.merge(selector.next(), 1, Integer::sum);
+        return counts;
+    }
+
+    private static double share(Map<String, Integer> counts, String code) {
+        return counts.getOrDefault(code, 0) / (double) SAMPLES;
+    }
+
+    @Test
+    void mixedFollowsNoveltyWeights() {
+        FlagQuestionSelector selector = new FlagQuestionSelector(List.of("DE", "FR", "IT"));
+        // Gewichte 1 + 1/(1+asked): 2.0, 1.5, 1.25
+        selector.reset(FlagQuestionSelector.Difficulty.MIXED, Map.of("FR", stats(1, 1, 0), "IT", stats(3, 2, 1)));
+        Map<String, Integer> counts = sample(selector);
+        assertEquals(2.0 / 4.75, share(counts, "DE"), 0.01);
+        assertEquals(1.5 / 4.75, share(counts, "FR"), 0.01);
+        assertEquals(1.25 / 4.75, share(counts, "IT"), 0.01);
+    }
+
+    @Test
+    void uniformWithoutStats() {
+        List<String> codes = List.of("DE", "FR", "IT", "ES", "PL", "NL", "BE");
+        Map<String, Integer> counts = sample(new FlagQuestionSelector(codes));
+        assertEquals(codes.size(), counts.size());
+        for (String code : codes) {
+            assertEquals(1.0 / codes.size(), share(counts, code), 0.01, code);
+        }
+    }
+
+    @Test
+    void difficultyBandPrefersMatchingFlags() {
+        FlagQuestionSelector selector = new FlagQuestionSelector(List.of("DE", "FR"));
+        // DE wird fast immer erkannt, FR fast nie
+        selector.reset(FlagQuestionSelector.Difficulty.HARD,
+                Map.of("DE", stats(50, 48, 2), "FR", stats(50, 10, 40)));
+        Map<String, Integer> counts = sample(selector);
+        assertTrue(share(counts, "FR") > 0.9, "FR: " + share(counts, "FR"));
+        // MIN_WEIGHT hält auch DE möglich
+        assertTrue(counts.getOrDefault("DE", 0) > 0);
+    }
+
+    @Test
+    void observeTakesEffectAfterRebuild() {
+        FlagQuestionSelector selector = new FlagQuestionSelector(List.of("DE", "FR"));
+        selector.reset(FlagQuestionSelector.Difficulty.EASY, Map.of());
+        FlagQuizService.FlagStats hard = stats(50, 5, 45);
+        for (int i = 0; i < FlagQuestionSelector.REBUILD_EVERY; i++) selector.observe("FR", hard);
+        Map<String, Integer> counts = sample(selector);
+        assertTrue(share(counts, "DE") > 0.9, "DE: " + share(counts, "DE"));
+    }
+}
@@ -0,0 +1,72 @@
+package dev.eministar.modules.flags;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FuzzyNameMatcherTest {
+    private final FuzzyNameMatcher matcher = new FuzzyNameMatcher(Map.of(
+            "kolumbien", "CO",
+            "oesterreich", "AT",
+            "italien", "IT",
+            "peru", "PE",
+            "iran", "IR",
+            "irak", "IQ",
+            "niger", "NE",
+            "nigeria", "NG"
+    ), 64);
+
+    private String find(String input) {
+        return matcher.find(input.toCharArray(), input.length());
+    }
+
+    @Test
+    void distanceDependsOnLength() {
+        assertEquals(0, FuzzyNameMatcher.maxDistanceFor(4));
+        assertEquals(1, FuzzyNameMatcher.maxDistanceFor(5));
+        assertEquals(1, FuzzyNameMatcher.maxDistanceFor(8));
+        assertEquals(2, FuzzyNameMatcher.maxDistanceFor(9));
+    }
+
+    @Test
+    void shortNamesMustBeExact() {
+        assertNull(find("perv"));
+        assertNull(find("iram"));
+        assertNull(find(""));
+    }
+
+    @Test
+    void mediumNamesAllowOneEdit() {
+        assertEquals("IT", find("itallen"));
+        assertEquals("IT", find("italen"));
+        assertNull(find("itxxien"));
+    }
+
+    @Test
+    void longNamesAllowTwoEdits() {
+        assertEquals("AT", find("oestereich"));
+        assertEquals("AT", find("oesteraich"));
+        assertNull(find("ostarreik"));
+    }
+
+    @Test
+    void transpositionCostsOne() {
+        assertEquals("CO", find("kolumbein"));
+        assertEquals("IT", find("itailen"));
+    }
+
+    @Test
+    void ambiguousMatchIsRejected() {
+        // "nigeri" ist zu "niger" und "nigeria" gleich weit entfernt
+        assertNull(find("nigeri"));
+        assertEquals("NG", find("nigerua"));
+    }
+
+    @Test
+    void closerMatchWins() {
+        assertEquals("NE", find("nigerr"));
+    }
+}
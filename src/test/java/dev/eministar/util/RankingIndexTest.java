@@ -0,0 +1,94 @@
+package dev.eministar.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RankingIndexTest {
+
+    @Test
+    void rankAndTopFollowScoreThenUserId() {
+        RankingIndex index = new RankingIndex();
+        index.update("c", 5);
+        index.update("a", 10);
+        index.update("b", 5);
+        index.update("d", 1);
+
+        assertEquals(List.of(new RankingIndex.Entry("a", 10), new RankingIndex.Entry("b", 5),
+                new RankingIndex.Entry("c", 5), new RankingIndex.Entry("d", 1)), index.top(10));
+        assertEquals(1, index.rank("a"));
+        assertEquals(2, index.rank("b"));
+        assertEquals(3, index.rank("c"));
+        assertEquals(4, index.rank("d"));
+        assertEquals(0, index.rank("x"));
+        assertEquals(2, index.top(2).size());
+    }
+
+    @Test
+    void updateMovesEntryBothWays() {
+        RankingIndex index = new RankingIndex();
+        index.update("a", 10);
+        index.update("b", 5);
+        index.update("b", 20);
+        assertEquals(1, index.rank("b"));
+        index.update("b", 0);
+        assertEquals(2, index.rank("b"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void removeDropsEntryAndShiftsRanks() {
+        RankingIndex index = new RankingIndex();
+        index.update("a", 3);
+        index.update("b", 2);
+        index.update("c", 1);
+        index.remove("a");
+        index.remove("unknown");
+
+        assertEquals(0, index.rank("a"));
+        assertEquals(1, index.rank("b"));
+        assertEquals(2, index.rank("c"));
+        assertEquals(2, index.size());
+        assertEquals(List.of(new RankingIndex.Entry("b", 2), new RankingIndex.Entry("c", 1)), index.top(5));
+
+        index.clear();
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.top(5));
+    }
+
+    @Test
+    void matchesSortedReferenceUnderRandomChanges() {
+        RankingIndex index = new RankingIndex();
+        Map<String, Integer> reference = new HashMap<>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            String user = "u" + rnd.nextInt(200);
+            if (rnd.nextInt(5) == 0) {
+                index.remove(user);
+                reference.remove(user);
+            } else {
+                int score = rnd.nextInt(50);
+                index.update(user, score);
+                reference.put(user, score);
+            }
+        }
+
+        List<RankingIndex.Entry> expected = new ArrayList<>();
+        reference.forEach((user, score) -> expected.add(new RankingIndex.Entry(user, score)));
+        expected.sort(Comparator.comparingInt(RankingIndex.Entry::score).reversed()
+                .thenComparing(RankingIndex.Entry::userId));
+
+        assertEquals(expected, index.top(Integer.MAX_VALUE));
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i + 1, index.rank(expected.get(i).userId()));
+        }
+    }
+}
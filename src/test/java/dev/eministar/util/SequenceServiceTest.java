@@ -0,0 +1,92 @@
+package dev.eministar.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequenceServiceTest {
+    @TempDir
+    Path dir;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("data/sequences.json");
+        SequenceService.reload(file);
+    }
+
+    @Test
+    void countsWithoutGapsWithinOneRun() {
+        for (long i = 0; i < 100; i++) assertEquals(i, SequenceService.next("ticket"));
+        assertEquals(100, SequenceService.peek("ticket"));
+        assertEquals(0, SequenceService.peek("poll"));
+    }
+
+    @Test
+    void neverReissuesAfterRestart() {
+        Set<Long> issued = new HashSet<>();
+        long last = -1;
+        // unterschiedlich viele IDs pro Lauf, auch genau an und kurz vor den Blockgrenzen
+        int[] perRun = {1, SequenceService.BLOCK_SIZE - 1, SequenceService.BLOCK_SIZE, 0, 5, SequenceService.BLOCK_SIZE + 1, 3};
+        for (int n : perRun) {
+            for (int i = 0; i < n; i++) {
+                long id = SequenceService.next("ticket");
+                assertTrue(issued.add(id), "doppelt vergeben: " + id);
+                assertTrue(id > last, "nicht aufsteigend: " + id + " nach " + last);
+                last = id;
+            }
+            SequenceService.reload(file);
+        }
+    }
+
+    @Test
+    void resumesAtReservedLimit() {
+        SequenceService.next("ticket");
+        SequenceService.reload(file);
+        assertEquals(SequenceService.BLOCK_SIZE, SequenceService.next("ticket"));
+    }
+
+    @Test
+    void seedRaisesFloorAndSurvivesRestart() {
+        SequenceService.seed("giveaway", 500);
+        SequenceService.seed("giveaway", 10);
+        assertEquals(500, SequenceService.next("giveaway"));
+        SequenceService.reload(file);
+        assertTrue(SequenceService.next("giveaway") > 500);
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIds() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < 1_000; i++) ids.add(SequenceService.next("suggestion"));
+                    return ids;
+                }));
+            }
+            Set<Long> all = new HashSet<>();
+            for (Future<List<Long>> f : futures) all.addAll(f.get());
+            assertEquals(8_000, all.size());
+        } finally {
+            pool.shutdown();
+        }
+        SequenceService.reload(file);
+        assertTrue(SequenceService.next("suggestion") >= 8_000);
+    }
+}